@@ -0,0 +1,95 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a JMH JSON result against the checked-in baseline and exits with status 1 if any
+ * benchmark got slower than the tolerance allows, or if a baseline benchmark is missing
+ * from the result (a renamed benchmark or @Param would otherwise drop out of the check).
+ * Warns when the two runs used different JDKs or a baseline score is noisier than the
+ * tolerance, since neither comparison means much then.
+ * mvn -Pjmh exec:java -Dexec.mainClass=bench.BaselineCheck -Dexec.args="jmh/baseline.json target/jmh-result.json 0.2"
+ */
+public class BaselineCheck {
+    private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)}");
+    private static final Pattern MODE = Pattern.compile("\"mode\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern SCORE = Pattern.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.Ee]+)");
+    private static final Pattern SCORE_ERROR = Pattern.compile("\"scoreError\"\\s*:\\s*([-0-9.Ee]+|\"NaN\")");
+    private static final Pattern JDK = Pattern.compile("\"jdkVersion\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.json> <result.json> [tolerance=0.2]");
+            System.exit(2);
+        }
+        Map<String, double[]> baseline = read(Path.of(args[0]));
+        Map<String, double[]> result = read(Path.of(args[1]));
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+
+        String baseJdk = jdkVersion(Path.of(args[0]));
+        String resultJdk = jdkVersion(Path.of(args[1]));
+        if (!baseJdk.equals(resultJdk)) {
+            System.out.printf("WARN  baseline ran on JDK %s, result on JDK %s%n", baseJdk, resultJdk);
+        }
+
+        boolean failed = false;
+        for (Map.Entry<String, double[]> e : baseline.entrySet()) {
+            if (e.getValue()[2] > e.getValue()[0] * tolerance) {
+                System.out.printf("WARN  %-60s baseline error %.3f exceeds %.0f%% of its score%n",
+                        e.getKey(), e.getValue()[2], tolerance * 100);
+            }
+            if (!result.containsKey(e.getKey())) {
+                System.out.printf("MISS  %-60s %12.3f%n", e.getKey(), e.getValue()[0]);
+                failed = true;
+            }
+        }
+        for (Map.Entry<String, double[]> e : result.entrySet()) {
+            double[] base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.printf("NEW   %-60s %12.3f%n", e.getKey(), e.getValue()[0]);
+                continue;
+            }
+            // Throughput modes: higher is better; time modes: lower is better
+            double ratio = e.getValue()[1] > 0 ? e.getValue()[0] / base[0] : base[0] / e.getValue()[0];
+            boolean regressed = ratio < 1 - tolerance;
+            failed |= regressed;
+            System.out.printf("%s %-60s %12.3f -> %12.3f (%+.1f%%)%n", regressed ? "SLOW " : "OK   ",
+                    e.getKey(), base[0], e.getValue()[0], (ratio - 1) * 100);
+        }
+        if (failed) System.exit(1);
+    }
+
+    // benchmark[params] -> {score, 1 if higher is better else 0, score error}
+    private static Map<String, double[]> read(Path file) throws IOException {
+        String json = Files.readString(file);
+        Map<String, double[]> out = new LinkedHashMap<>();
+        String[] entries = json.split("\"jmhVersion\"");
+        for (int i = 1; i < entries.length; i++) {
+            String entry = entries[i];
+            Matcher name = BENCHMARK.matcher(entry);
+            Matcher mode = MODE.matcher(entry);
+            Matcher score = SCORE.matcher(entry);
+            if (!name.find() || !mode.find() || !score.find()) continue;
+            Matcher params = PARAMS.matcher(entry);
+            String key = name.group(1) + (params.find() ? "[" + params.group(1).replaceAll("[\\s\"]", "") + "]" : "");
+            boolean higherIsBetter = mode.group(1).equals("thrpt");
+            Matcher error = SCORE_ERROR.matcher(entry);
+            double scoreError = error.find() && !error.group(1).startsWith("\"") ? Double.parseDouble(error.group(1)) : 0;
+            out.put(key, new double[] {Double.parseDouble(score.group(1)), higherIsBetter ? 1 : 0, scoreError});
+        }
+        return out;
+    }
+
+    // JDK of the first benchmark in the file, "unknown" if it is not recorded
+    private static String jdkVersion(Path file) throws IOException {
+        Matcher m = JDK.matcher(Files.readString(file));
+        return m.find() ? m.group(1) : "unknown";
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import model.Move;
+import model.Pyraminx;
+import model.SaveFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Save and load of a session with a history of the given length, in either save format. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileBenchmark {
+    @Param({"100", "10000"})
+    public int historyLength;
+
+    @Param({"JSON", "BINARY"})
+    public SaveFormat format;
+
+    private Pyraminx cube;
+    private Pyraminx target;
+    private Path saveFile;
+    private Path loadFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cube = new Pyraminx();
+        Move[] moves = Move.values();
+        for (int i = 0; i < historyLength; i++) cube.apply(moves[(i * 5) & 7]);
+        target = new Pyraminx();
+        saveFile = Files.createTempFile("pyraminx-save", ".sav");
+        loadFile = Files.createTempFile("pyraminx-load", ".sav");
+        cube.saveToFile(loadFile.toString(), format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(loadFile);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        cube.saveToFile(saveFile.toString(), format);
+    }
+
+    @Benchmark
+    public Pyraminx load() throws IOException {
+        target.loadFromFile(loadFile.toString());
+        return target;
+    }
+}
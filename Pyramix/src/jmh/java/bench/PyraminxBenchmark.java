@@ -0,0 +1,100 @@
+package bench;
+
+import model.Move;
+import model.Pyraminx;
+import model.Scrambler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-memory Pyraminx operations. Benchmarks that record history clear
+ * it every HISTORY_CAP calls so the stacks stay small and the numbers stay comparable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PyraminxBenchmark {
+    private static final int HISTORY_CAP = 1024;
+    private static final Move[] MOVES = Move.values();
+    private static final String SEQUENCE = "R' U' R U' R' U' R";
+
+    private Pyraminx cube;
+    private Pyraminx scrambled;
+    private int calls;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        cube = new Pyraminx();
+        scrambled = new Pyraminx();
+        scrambled.apply("R U L' B R' U' L B'");
+        for (int i = 0; i < 64; i++) scrambled.apply(MOVES[i & 7]);
+        calls = 0;
+    }
+
+    private void capHistory() {
+        if (++calls == HISTORY_CAP) {
+            cube.clearHistory();
+            calls = 0;
+        }
+    }
+
+    @Benchmark
+    public Pyraminx apply() {
+        cube.apply(MOVES[calls & 7]);
+        capHistory();
+        return cube;
+    }
+
+    @Benchmark
+    public Pyraminx applyTipOnly() {
+        cube.apply(MOVES[calls & 7], true);
+        capHistory();
+        return cube;
+    }
+
+    @Benchmark
+    public Pyraminx applySequence() {
+        cube.apply(SEQUENCE);
+        capHistory();
+        return cube;
+    }
+
+    @Benchmark
+    public List<Move> parseSequence() {
+        return Move.parseSequence(SEQUENCE);
+    }
+
+    @Benchmark
+    public Pyraminx undoRedo() {
+        scrambled.undo();
+        scrambled.redo();
+        return scrambled;
+    }
+
+    @Benchmark
+    public Pyraminx scramble20() {
+        cube.scramble(20);
+        capHistory();
+        return cube;
+    }
+
+    @Benchmark
+    public long randomState() {
+        return Scrambler.current().nextState();
+    }
+
+    @Benchmark
+    public Scrambler.Scramble randomStateWithSolution() {
+        return Scrambler.current().next();
+    }
+
+    @Benchmark
+    public boolean isSolved() {
+        return scrambled.isSolved();
+    }
+}
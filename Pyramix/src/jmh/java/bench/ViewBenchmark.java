@@ -0,0 +1,35 @@
+package bench;
+
+import model.PackedState;
+import org.openjdk.jmh.annotations.*;
+import view.PyraminxView;
+
+import java.util.concurrent.TimeUnit;
+
+/** Geometry of the 2D net and the per-frame dirty sticker mask; no JavaFX toolkit is started. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ViewBenchmark {
+    private final double[] xs = new double[PyraminxView.GEOMETRY_SIZE];
+    private final double[] ys = new double[PyraminxView.GEOMETRY_SIZE];
+    private long state = PackedState.SOLVED;
+    private int move;
+
+    @Benchmark
+    public double[] computeGeometry() {
+        PyraminxView.computeGeometry(500, 450, xs, ys);
+        return xs;
+    }
+
+    @Benchmark
+    public long changedStickers() {
+        long next = PackedState.apply(state, move++ & 7);
+        long mask = PackedState.changedStickers(state, next);
+        state = next;
+        return mask;
+    }
+}
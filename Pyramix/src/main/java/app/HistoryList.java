@@ -0,0 +1,69 @@
+package app;
+
+import javafx.collections.ObservableListBase;
+import model.MoveHistory;
+import model.Pyraminx;
+
+import java.util.Collections;
+
+/**
+ * Read-only list view of the moves before the history cursor, in notation. It copies
+ * nothing: get reads the entry straight from the puzzle, so a virtualized ListView only
+ * touches the rows on screen. History changes are collected as they arrive and published
+ * as one list change by flush, once per frame, so a move costs the same at 100k moves
+ * as at 10. Must be used on the JavaFX application thread.
+ */
+class HistoryList extends ObservableListBase<String> implements MoveHistory.Listener {
+    private final Pyraminx cube;
+    private int shown;       // size the list observers have seen
+    private int dropped;     // entries that fell off the front since the last flush
+    private int from = Integer.MAX_VALUE; // first index (after dropping) that changed
+
+    HistoryList(Pyraminx cube) {
+        this.cube = cube;
+        shown = cube.getHistoryPosition();
+        cube.addHistoryListener(this);
+    }
+
+    @Override
+    public void historyChanged(int dropped, int from, int oldSize, int newSize) {
+        if (this.from >= dropped) {
+            this.dropped += dropped;
+            this.from -= dropped;
+        } else {
+            // Entries not yet shown fell off the front: publish a full replacement
+            this.dropped = 0;
+            this.from = 0;
+        }
+        this.from = Math.min(this.from, from);
+    }
+
+    /** Publishes the changes since the last call as one list change. */
+    void flush() {
+        if (from == Integer.MAX_VALUE) return;
+        int size = cube.getHistoryPosition();
+        int old = shown;
+        beginChange();
+        if (dropped > 0) nextRemove(0, Collections.nCopies(dropped, ""));
+        int kept = old - dropped;
+        if (from < kept) nextRemove(from, Collections.nCopies(kept - from, ""));
+        if (from < size) nextAdd(from, size);
+        shown = size;
+        dropped = 0;
+        from = Integer.MAX_VALUE;
+        endChange();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= shown) throw new IndexOutOfBoundsException(index);
+        // Between a change and the next flush the list may be ahead of the history
+        if (index >= cube.getHistoryPosition()) return "";
+        return MoveHistory.notation(cube.getHistoryEntry(index));
+    }
+
+    @Override
+    public int size() {
+        return shown;
+    }
+}
@@ -2,20 +2,27 @@ package app;
 
 import javafx.application.Application;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import model.AlgorithmCache;
 import model.Move;
 import model.Pyraminx;
+import model.SequenceOptimizer;
 import view.PyraminxView;
+import view.RenderScheduler;
 
 public class PyraminxApp extends Application {
     private final Pyraminx cube = new Pyraminx();
     private final TextArea log = new TextArea();
+    private final HistoryList history = new HistoryList(cube);
     private Canvas canvas;
     private boolean tipOnlyMode = false;
+    private RenderScheduler scheduler;
+    private String pendingHeader = "Ready.";
 
     @Override
     public void start(Stage stage) {
@@ -45,11 +52,16 @@ public class PyraminxApp extends Application {
 
         TextField seqField = new TextField("U' L' U L");
         Button btnRunSeq = new Button("Run Sequence");
+        Button btnOptimize = new Button("Optimize");
+        Button btnCompact = new Button("Compact History");
+        CheckBox cbAnimate = new CheckBox("Animate");
+        Slider speed = new Slider(1, 60, 8);
+        speed.setPrefWidth(100);
 
-        HBox topRow = new HBox(10, btnReset, btnScramble, btnUndo, btnRedo, btnSave, btnLoad);
+        HBox topRow = new HBox(10, btnReset, btnScramble, btnUndo, btnRedo, btnSave, btnLoad, btnCompact);
         HBox moveRow = new HBox(10, btnR, btnRprime, btnL, btnLprime, btnU, btnUprime, btnB, btnBprime);
         HBox modeRow = new HBox(15, new Label("Move Mode:"), rbNormal, rbTipOnly);
-        HBox seqRow = new HBox(10, new Label("Algorithm:"), seqField, btnRunSeq);
+        HBox seqRow = new HBox(10, new Label("Algorithm:"), seqField, btnRunSeq, btnOptimize, cbAnimate, speed, new Label("moves/s"));
         topRow.setPadding(new Insets(10));
         moveRow.setPadding(new Insets(10));
         modeRow.setPadding(new Insets(10));
@@ -58,15 +70,28 @@ public class PyraminxApp extends Application {
         log.setEditable(false);
         log.setPrefRowCount(8);
         log.setWrapText(true);
+        // Horizontal strip of moves; fixed cells let the ListView lay out only the visible ones
+        ListView<String> historyView = new ListView<>(history);
+        historyView.setOrientation(Orientation.HORIZONTAL);
+        historyView.setFixedCellSize(36);
+        historyView.setPrefHeight(44);
+        historyView.setFocusTraversable(false);
         canvas = new Canvas(500, 450);
+        scheduler = new RenderScheduler(cube, PyraminxView.forCanvas(canvas), () -> {
+            history.flush();
+            if (!history.isEmpty()) historyView.scrollTo(history.size() - 1);
+            writeState(pendingHeader);
+            updateUndoRedoButtons(btnUndo, btnRedo);
+        });
 
-        VBox root = new VBox(10, topRow, moveRow, modeRow, seqRow, new Label("State:"), log, canvas);
+        VBox root = new VBox(10, topRow, moveRow, modeRow, seqRow, new Label("State:"), log,
+                new Label("History:"), historyView, canvas);
         root.setPadding(new Insets(10));
 
-        btnReset.setOnAction(e -> { cube.resetSolved(); writeState("Reset to solved."); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnScramble.setOnAction(e -> { cube.scramble(20); writeState("Scrambled 20 random moves."); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnUndo.setOnAction(e -> { cube.undo(); writeState("Undo"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnRedo.setOnAction(e -> { cube.redo(); writeState("Redo"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
+        btnReset.setOnAction(e -> { scheduler.finishAnimation(); cube.resetSolved(); changed("Reset to solved."); });
+        btnScramble.setOnAction(e -> { scheduler.finishAnimation(); cube.scramble(20); changed("Scrambled 20 random moves."); });
+        btnUndo.setOnAction(e -> { scheduler.finishAnimation(); cube.undo(); changed("Undo"); });
+        btnRedo.setOnAction(e -> { scheduler.finishAnimation(); cube.redo(); changed("Redo"); });
 
         rbNormal.setOnAction(e -> tipOnlyMode = false);
         rbTipOnly.setOnAction(e -> {
@@ -74,27 +99,47 @@ public class PyraminxApp extends Application {
             System.out.println("Tip Only Mode: " + tipOnlyMode);
         });
 
-        btnR.setOnAction(e -> { cube.apply(Move.R, tipOnlyMode); writeState(tipOnlyMode ? "r" : "R"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnRprime.setOnAction(e -> { cube.apply(Move.R_PRIME, tipOnlyMode); writeState(tipOnlyMode ? "r'" : "R'"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnL.setOnAction(e -> { cube.apply(Move.L, tipOnlyMode); writeState(tipOnlyMode ? "l" : "L"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnLprime.setOnAction(e -> { cube.apply(Move.L_PRIME, tipOnlyMode); writeState(tipOnlyMode ? "l'" : "L'"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnU.setOnAction(e -> { cube.apply(Move.U, tipOnlyMode); writeState(tipOnlyMode ? "u" : "U"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnUprime.setOnAction(e -> { cube.apply(Move.U_PRIME, tipOnlyMode); writeState(tipOnlyMode ? "u'" : "U'"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnB.setOnAction(e -> { cube.apply(Move.B, tipOnlyMode); writeState(tipOnlyMode ? "b" : "B"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
-        btnBprime.setOnAction(e -> { cube.apply(Move.B_PRIME, tipOnlyMode); writeState(tipOnlyMode ? "b'" : "B'"); PyraminxView.drawPyraminx(cube, canvas); updateUndoRedoButtons(btnUndo, btnRedo); });
+        btnR.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.R, tipOnlyMode); changed(tipOnlyMode ? "r" : "R"); });
+        btnRprime.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.R_PRIME, tipOnlyMode); changed(tipOnlyMode ? "r'" : "R'"); });
+        btnL.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.L, tipOnlyMode); changed(tipOnlyMode ? "l" : "L"); });
+        btnLprime.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.L_PRIME, tipOnlyMode); changed(tipOnlyMode ? "l'" : "L'"); });
+        btnU.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.U, tipOnlyMode); changed(tipOnlyMode ? "u" : "U"); });
+        btnUprime.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.U_PRIME, tipOnlyMode); changed(tipOnlyMode ? "u'" : "U'"); });
+        btnB.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.B, tipOnlyMode); changed(tipOnlyMode ? "b" : "B"); });
+        btnBprime.setOnAction(e -> { scheduler.finishAnimation(); cube.apply(Move.B_PRIME, tipOnlyMode); changed(tipOnlyMode ? "b'" : "B'"); });
         btnRunSeq.setOnAction(e -> {
             try {
-                cube.apply(seqField.getText());
-                writeState("Applied: " + seqField.getText());
-                PyraminxView.drawPyraminx(cube, canvas);
-                updateUndoRedoButtons(btnUndo, btnRedo);
+                scheduler.finishAnimation();
+                if (cbAnimate.isSelected()) {
+                    scheduler.animate(AlgorithmCache.shared().get(seqField.getText()), speed.getValue());
+                    changed("Animating: " + seqField.getText());
+                } else {
+                    cube.apply(seqField.getText());
+                    changed("Applied: " + seqField.getText());
+                }
+            } catch (Exception ex) {
+                log.appendText("Error: " + ex.getMessage() + "\n");
+            }
+        });
+
+        btnOptimize.setOnAction(e -> {
+            try {
+                String before = seqField.getText();
+                seqField.setText(SequenceOptimizer.optimize(before).toString());
+                log.appendText("Optimized: " + before + " -> " + seqField.getText() + "\n");
             } catch (Exception ex) {
                 log.appendText("Error: " + ex.getMessage() + "\n");
             }
         });
+        btnCompact.setOnAction(e -> {
+            scheduler.finishAnimation();
+            int saved = cube.compactHistory();
+            changed("Compacted history, " + saved + " moves shorter.");
+        });
 
         btnSave.setOnAction(e -> {
             try {
+                scheduler.finishAnimation();
                 cube.saveToFile("pyraminx_save.json");
                 log.appendText("State saved to pyraminx_save.json\n");
             } catch (Exception ex) {
@@ -104,30 +149,29 @@ public class PyraminxApp extends Application {
 
         btnLoad.setOnAction(e -> {
             try {
+                scheduler.finishAnimation();
                 cube.loadFromFile("pyraminx_save.json");
-                writeState("State loaded from file.");
-                PyraminxView.drawPyraminx(cube, canvas);
-                updateUndoRedoButtons(btnUndo, btnRedo);
+                changed("State loaded from file.");
             } catch (Exception ex) {
                 log.appendText("Load error: " + ex.getMessage() + "\n");
             }
         });
 
-        updateUndoRedoButtons(btnUndo, btnRedo);
-
-        writeState("Ready.");
-        PyraminxView.drawPyraminx(cube, canvas);
-        stage.setScene(new Scene(root, 720, 700));
+        changed("Ready.");
+        stage.setScene(new Scene(root, 720, 760));
         stage.show();
     }
 
-    
+    // Records what happened; the log, buttons and canvas catch up on the next frame
+    private void changed(String header) {
+        pendingHeader = header;
+        scheduler.requestRender();
+    }
 
     private void writeState(String header) {
         StringBuilder sb = new StringBuilder();
         sb.append(header).append('\n');
-        sb.append("Moves: ").append(cube.getMoveCount()).append(" | ");
-        sb.append("History: ").append(cube.getMoveHistory()).append('\n');
+        sb.append("Moves: ").append(cube.getMoveCount()).append('\n');
         for (int f = 0; f < 4; f++) {
             sb.append(cube.faceSummary(f)).append('\n');
         }
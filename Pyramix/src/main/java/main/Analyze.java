@@ -0,0 +1,55 @@
+package main;
+
+import model.BulkAnalyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless bulk analysis: solves every scramble line of a file and prints the optimal
+ * solution per line plus length histograms. No JavaFX classes are loaded.
+ * Usage: Analyze [--threads N] [--chunk BYTES] [--quiet] scrambles.txt [output.txt]
+ * Results go to output.txt, or standard output when it is omitted or "-"; --quiet only
+ * prints the summary. The summary is printed to standard error.
+ */
+public class Analyze {
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunk = BulkAnalyzer.DEFAULT_CHUNK;
+        boolean quiet = false;
+        Path input = null;
+        String output = "-";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk" -> chunk = Integer.parseInt(args[++i]);
+                case "--quiet" -> quiet = true;
+                default -> {
+                    if (input == null) input = Path.of(args[i]);
+                    else output = args[i];
+                }
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: Analyze [--threads N] [--chunk BYTES] [--quiet] scrambles.txt [output.txt]");
+            System.exit(2);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (OutputStream out = quiet ? null : open(output)) {
+            BulkAnalyzer.Report report = new BulkAnalyzer(pool, chunk).run(input, out);
+            System.err.print(report.format());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static OutputStream open(String output) throws IOException {
+        OutputStream raw = output.equals("-") ? System.out : Files.newOutputStream(Path.of(output));
+        return new BufferedOutputStream(raw, 1 << 16);
+    }
+}
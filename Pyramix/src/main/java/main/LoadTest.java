@@ -0,0 +1,152 @@
+package main;
+
+import model.LatencyHistogram;
+import server.PuzzleServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for the HTTP service: each client is a virtual thread with its own session
+ * that keeps sending apply, state, undo and (now and then) solve requests through the
+ * JDK HttpClient until the time is up. Without --url it starts a PuzzleServer in this
+ * process on a free port. Requests during the warm-up are sent but not counted.
+ * Usage: LoadTest [--url http://host:port] [--clients N] [--duration SECONDS] [--warmup SECONDS]
+ * Prints throughput, errors and latency percentiles per request type to standard output.
+ */
+public class LoadTest {
+    private static final String[] SEQUENCES = {"R U' L B", "U L' U' L", "r' b", "L R' B U' R", "B' U"};
+
+    private enum Op { CREATE, APPLY, STATE, UNDO, SOLVE }
+
+    private static final LatencyHistogram[] LATENCY = new LatencyHistogram[Op.values().length];
+    private static final LongAdder ERRORS = new LongAdder();
+    private static volatile boolean recording;
+    private static volatile boolean running = true;
+
+    static {
+        for (int i = 0; i < LATENCY.length; i++) LATENCY[i] = new LatencyHistogram();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 64;
+        double duration = 10;
+        double warmup = 2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--duration" -> duration = Double.parseDouble(args[++i]);
+                case "--warmup" -> warmup = Double.parseDouble(args[++i]);
+                default -> {
+                    System.err.println("Usage: LoadTest [--url http://host:port] [--clients N] [--duration SECONDS] [--warmup SECONDS]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        PuzzleServer local = null;
+        if (url == null) {
+            local = new PuzzleServer(new InetSocketAddress("127.0.0.1", 0), PuzzleServer.DEFAULT_HISTORY_LIMIT);
+            local.start();
+            url = "http://127.0.0.1:" + local.port();
+        }
+        URI base = URI.create(url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(threads)
+                    .build();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) workers.add(threads.submit(() -> runClient(client, base)));
+
+            Thread.sleep((long) (warmup * 1000));
+            recording = true;
+            long started = System.nanoTime();
+            Thread.sleep((long) (duration * 1000));
+            recording = false;
+            long elapsed = System.nanoTime() - started;
+            running = false;
+            for (Future<?> f : workers) f.get();
+            print(clients, elapsed);
+        } finally {
+            if (local != null) local.stop(0);
+        }
+    }
+
+    private static Void runClient(HttpClient client, URI base) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String session = null;
+        for (long n = 0; running; n++) {
+            try {
+                if (session == null) {
+                    String body = send(client, Op.CREATE, HttpRequest.newBuilder(base.resolve("/sessions?scramble=20"))
+                            .POST(HttpRequest.BodyPublishers.noBody()));
+                    // {"id":"...", ...}
+                    if (body != null) session = body.substring(7, body.indexOf('"', 7));
+                    continue;
+                }
+                URI uri = base.resolve("/sessions/" + session);
+                switch ((int) (n % 4)) {
+                    case 0 -> send(client, Op.APPLY, HttpRequest.newBuilder(URI.create(uri + "/apply"))
+                            .POST(HttpRequest.BodyPublishers.ofString(SEQUENCES[rnd.nextInt(SEQUENCES.length)])));
+                    case 1 -> send(client, Op.STATE, HttpRequest.newBuilder(uri).GET());
+                    case 2 -> send(client, Op.UNDO, HttpRequest.newBuilder(URI.create(uri + "/undo"))
+                            .POST(HttpRequest.BodyPublishers.noBody()));
+                    default -> {
+                        if (n % 40 == 3) send(client, Op.SOLVE, HttpRequest.newBuilder(URI.create(uri + "/solve")).GET());
+                        else send(client, Op.STATE, HttpRequest.newBuilder(uri).GET());
+                    }
+                }
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Response body, or null after a failed request (counted while recording)
+    private static String send(HttpClient client, Op op, HttpRequest.Builder request) throws InterruptedException {
+        long t = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() / 100 == 2;
+            if (recording) {
+                LATENCY[op.ordinal()].record(System.nanoTime() - t);
+                if (!ok) ERRORS.increment();
+            }
+            return ok ? response.body() : null;
+        } catch (IOException e) {
+            if (recording) ERRORS.increment();
+            return null;
+        }
+    }
+
+    private static void print(int clients, long elapsedNanos) {
+        long total = 0;
+        for (LatencyHistogram h : LATENCY) total += h.count();
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("clients=%d duration=%.1fs requests=%,d errors=%,d throughput=%,.0f req/s%n",
+                clients, seconds, total, ERRORS.sum(), total / seconds);
+        for (Op op : Op.values()) {
+            LatencyHistogram.Summary s = LATENCY[op.ordinal()].summary();
+            if (s.count() == 0) continue;
+            System.out.printf("%-6s count=%,d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    op.name().toLowerCase(), s.count(), s.mean() / 1e3, s.p50() / 1e3, s.p90() / 1e3,
+                    s.p99() / 1e3, s.p999() / 1e3, s.max() / 1e3);
+        }
+    }
+}
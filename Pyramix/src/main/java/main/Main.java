@@ -1,9 +1,29 @@
 package main;
 
 import app.PyraminxApp;
+import model.Metrics;
+
+import java.util.Arrays;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (Metrics.ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(Metrics.snapshot().format())));
+        }
+        // --analyze runs the headless bulk analysis (see Analyze) instead of the UI
+        if (args.length > 0 && args[0].equals("--analyze")) {
+            Analyze.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --serve runs the HTTP service (see Serve), --load-test drives one (see LoadTest)
+        if (args.length > 0 && args[0].equals("--serve")) {
+            Serve.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--load-test")) {
+            LoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         PyraminxApp.jumpStart(args);
     }
 }
@@ -0,0 +1,41 @@
+package main;
+
+import server.PuzzleServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Runs the headless HTTP service (see PuzzleServer) until the process is stopped.
+ * Usage: Serve [--host ADDRESS] [--port N] [--history MOVES] [--max-sessions N] [--idle SECONDS]
+ * --history caps the undo history kept per session; sessions without requests for
+ * --idle seconds are dropped.
+ */
+public class Serve {
+    public static void main(String[] args) throws IOException {
+        String host = "0.0.0.0";
+        int port = PuzzleServer.DEFAULT_PORT;
+        int history = PuzzleServer.DEFAULT_HISTORY_LIMIT;
+        int maxSessions = PuzzleServer.DEFAULT_MAX_SESSIONS;
+        Duration idle = PuzzleServer.DEFAULT_IDLE_TIMEOUT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host" -> host = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--history" -> history = Integer.parseInt(args[++i]);
+                case "--max-sessions" -> maxSessions = Integer.parseInt(args[++i]);
+                case "--idle" -> idle = Duration.ofSeconds(Long.parseLong(args[++i]));
+                default -> {
+                    System.err.println("Usage: Serve [--host ADDRESS] [--port N] [--history MOVES] [--max-sessions N] [--idle SECONDS]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        PuzzleServer server = new PuzzleServer(new InetSocketAddress(host, port), history, maxSessions, idle);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        server.start();
+        System.err.println("Listening on " + host + ":" + server.port());
+    }
+}
@@ -0,0 +1,137 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, approximately least-recently-used cache of compiled algorithms keyed by the
+ * sequence text with its whitespace normalized, so "R  U'" and " R U' " share one entry.
+ * The map is a ConcurrentHashMap, so hits take no lock: a hit only stamps its entry with
+ * the current tick. Misses compile outside the map and, once it is over capacity, evict
+ * the entry with the oldest stamp. Sequences longer than MAX_KEY_LENGTH are compiled
+ * without being cached, so long one-off inputs cannot flood it. The shared instance holds
+ * up to -Dpyraminx.algorithmCacheSize entries (default 1024).
+ */
+public final class AlgorithmCache {
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("pyraminx.algorithmCacheSize", 1024);
+    public static final int MAX_KEY_LENGTH = 256;
+    private static final AlgorithmCache SHARED = new AlgorithmCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+    // Advanced by misses only, so hits never write shared state
+    private final AtomicLong tick = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static final class Entry {
+        final CompiledAlgorithm algorithm;
+        volatile long used;
+
+        Entry(CompiledAlgorithm algorithm, long used) {
+            this.algorithm = algorithm;
+            this.used = used;
+        }
+    }
+
+    public AlgorithmCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /** Process-wide cache used by Pyraminx.apply(String). */
+    public static AlgorithmCache shared() {
+        return SHARED;
+    }
+
+    /** Compiled form of seq, compiling it on the first request. */
+    public CompiledAlgorithm get(CharSequence seq) {
+        if (seq.length() > MAX_KEY_LENGTH) {
+            misses.increment();
+            return CompiledAlgorithm.compile(seq);
+        }
+        String key = normalize(seq);
+        Entry entry = map.get(key);
+        if (entry != null) {
+            hits.increment();
+            // Newer than every entry added so far; skip the write if already stamped
+            long now = tick.get() + 1;
+            if (entry.used != now) entry.used = now;
+            return entry.algorithm;
+        }
+        misses.increment();
+        Entry added = new Entry(CompiledAlgorithm.compile(key), tick.incrementAndGet());
+        // Another thread may have compiled the same key meanwhile; keep the first one
+        Entry prev = map.putIfAbsent(key, added);
+        if (prev != null) return prev.algorithm;
+        while (map.size() > capacity) {
+            if (!evictEldest(key)) break;
+        }
+        return added.algorithm;
+    }
+
+    // Removes the entry with the oldest stamp other than keep; false if none was removed
+    private boolean evictEldest(String keep) {
+        String eldest = null;
+        Entry eldestEntry = null;
+        for (Map.Entry<String, Entry> e : map.entrySet()) {
+            if (e.getKey().equals(keep)) continue;
+            if (eldestEntry == null || e.getValue().used < eldestEntry.used) {
+                eldest = e.getKey();
+                eldestEntry = e.getValue();
+            }
+        }
+        if (eldestEntry == null) return false;
+        // A concurrent miss may have evicted it already; count it only once
+        if (map.remove(eldest, eldestEntry)) evictions.increment();
+        return true;
+    }
+
+    /** Tokens of seq joined by single spaces. */
+    static String normalize(CharSequence seq) {
+        StringBuilder sb = new StringBuilder(seq.length());
+        for (int i = 0; i < seq.length(); i++) {
+            char c = seq.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AlgorithmCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                size(), capacity, hits(), misses(), evictions());
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Solves many states or scramble strings in parallel. Work is split across a ForkJoinPool
+ * and every worker thread reuses one Solver, so a solve allocates nothing: each answer
+ * is a packed long as returned by Solver.solvePacked (decode with Solver.packedLength,
+ * packedMove, packedTipOnly or format). Nothing here touches a Pyraminx or its history.
+ * States are checked with StateValidator before any search starts, so an unreachable
+ * input fails with IllegalArgumentException instead of occupying a worker.
+ */
+public final class BatchSolver {
+    private static final int CHUNK = 256;
+    private static final ThreadLocal<Solver> SOLVERS = ThreadLocal.withInitial(Solver::new);
+
+    private final ForkJoinPool pool;
+
+    public BatchSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Solves states[i] into out[i] for every i. */
+    public void solve(long[] states, long[] out) {
+        if (out.length < states.length) {
+            throw new IllegalArgumentException("Output holds " + out.length + " of " + states.length + " solutions");
+        }
+        for (int i = 0; i < states.length; i++) {
+            String problem = StateValidator.check(states[i]);
+            if (problem != null) throw new IllegalArgumentException("State " + i + ": " + problem);
+        }
+        pool.invoke(new SolveRange(states, out, 0, states.length));
+    }
+
+    public long[] solve(long[] states) {
+        long[] out = new long[states.length];
+        solve(states, out);
+        return out;
+    }
+
+    /** Solves scrambles given in Move.parseSequence syntax, each applied to a solved puzzle. */
+    public long[] solve(String[] scrambles) {
+        long[] states = new long[scrambles.length];
+        pool.invoke(new ParseRange(scrambles, states, 0, scrambles.length));
+        return solve(states);
+    }
+
+    /** Parallel, order-preserving solve of a stream of states. */
+    public static LongStream solve(LongStream states) {
+        return states.parallel().map(s -> SOLVERS.get().solvePacked(StateValidator.requireValid(s)));
+    }
+
+    /** Parallel, order-preserving solve of a stream of scramble strings. */
+    public static LongStream solveScrambles(Stream<String> scrambles) {
+        return scrambles.parallel().mapToLong(seq ->
+                SOLVERS.get().solvePacked(PackedState.applySequence(PackedState.SOLVED, seq)));
+    }
+
+    private static final class SolveRange extends RecursiveAction {
+        private final long[] states;
+        private final long[] out;
+        private final int lo;
+        private final int hi;
+
+        SolveRange(long[] states, long[] out, int lo, int hi) {
+            this.states = states;
+            this.out = out;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new SolveRange(states, out, lo, mid), new SolveRange(states, out, mid, hi));
+                return;
+            }
+            Solver solver = SOLVERS.get();
+            for (int i = lo; i < hi; i++) out[i] = solver.solvePacked(states[i]);
+        }
+    }
+
+    private static final class ParseRange extends RecursiveAction {
+        private final String[] scrambles;
+        private final long[] out;
+        private final int lo;
+        private final int hi;
+
+        ParseRange(String[] scrambles, long[] out, int lo, int hi) {
+            this.scrambles = scrambles;
+            this.out = out;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > CHUNK * 16) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ParseRange(scrambles, out, lo, mid), new ParseRange(scrambles, out, mid, hi));
+                return;
+            }
+            for (int i = lo; i < hi; i++) out[i] = PackedState.applySequence(PackedState.SOLVED, scrambles[i]);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot format, written from a heap buffer and read through a memory-mapped
+ * file channel.
+ * Layout (big-endian):
+ * - int magic "PYRS", short version, short reserved
+ * - long packed state (see PackedState)
+ * - int history length n
+ * - ceil(n / 2) bytes of history, one 4-bit entry per move (low nibble first):
+ *   the Move ordinal, plus 8 when it was a tip-only move (same as MoveHistory entries)
+ */
+final class BinarySave {
+    static final int MAGIC = 0x50595253; // "PYRS"
+    static final short VERSION = 1;
+    private static final int HEADER = 20;
+
+    final long state;
+    final byte[] history;
+    final int historyLength;
+
+    private BinarySave(long state, byte[] history, int historyLength) {
+        this.state = state;
+        this.history = history;
+        this.historyLength = historyLength;
+    }
+
+    /** True when the file starts with the binary magic; anything else is treated as JSON. */
+    static boolean isBinary(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && ch.read(magic) >= 0) {}
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Writes state and the first count history entries (MoveHistory entries). */
+    static void write(Path file, long state, byte[] history, int count) throws IOException {
+        // Built on the heap and written in one go: a mapping would stay alive until it is
+        // garbage collected, and on Windows that blocks saving to the same file again
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + ((count + 1) >> 1));
+        buf.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(state).putInt(count);
+        for (int i = 0; i + 1 < count; i += 2) {
+            buf.put((byte) ((history[i] & 0xF) | (history[i + 1] << 4)));
+        }
+        if ((count & 1) == 1) buf.put((byte) (history[count - 1] & 0xF));
+        buf.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+        }
+    }
+
+    static BinarySave read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) throw new IOException("Truncated save file: " + file);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt() != MAGIC) throw new IOException("Not a binary save file: " + file);
+            short version = map.getShort();
+            if (version != VERSION) throw new IOException("Unsupported save file version " + version);
+            map.getShort();
+            long state = map.getLong();
+            int count = map.getInt();
+            if (count < 0 || HEADER + ((count + 1L) >> 1) != size) {
+                throw new IOException("Save file history length does not match its size: " + file);
+            }
+
+            byte[] history = new byte[count];
+            for (int i = 0; i < count; i += 2) {
+                int b = map.get();
+                history[i] = (byte) (b & 0xF);
+                if (i + 1 < count) history[i + 1] = (byte) ((b >> 4) & 0xF);
+            }
+            return new BinarySave(state, history, count);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Solves every line of a scramble file (Move.parseSequence syntax, one per line) and
+ * writes "length solution" per line in input order, collecting length histograms.
+ * The file is cut into fixed-size chunks that worker threads read with positional
+ * reads into their own buffer, so the file is never held in memory: at most a few
+ * chunks per thread are in flight, and their output is written by the calling thread
+ * in order. Lines are parsed straight out of the byte buffer and solved with one Solver
+ * per thread, so a line allocates nothing. A chunk owns the lines that start inside it;
+ * a line may run at most MAX_LINE bytes past the end of its chunk.
+ */
+public final class BulkAnalyzer {
+    public static final int DEFAULT_CHUNK = 1 << 20;
+    public static final int MAX_LINE = 1 << 16;
+    private static final ThreadLocal<Solver> SOLVERS = ThreadLocal.withInitial(Solver::new);
+    private static final byte[] AXIS_NAMES = {'R', 'L', 'U', 'B'};
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    // Per-thread read buffer, sized for a chunk plus the tail of its last line
+    private final ThreadLocal<ByteBuffer> buffers;
+
+    /** Totals of a run; lengths count every move, layerLengths only the layer moves. */
+    public record Report(long lines, long errors, long[] lengths, long[] layerLengths, long nanos) {
+        /** Text summary with one histogram bar per length. */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%,d lines, %,d errors in %.2f s (%,.0f lines/s)%n",
+                    lines, errors, nanos / 1e9, lines / Math.max(nanos / 1e9, 1e-9)));
+            histogram(sb, "Solution length (all moves)", lengths);
+            histogram(sb, "Layer moves (optimal, tips excluded)", layerLengths);
+            return sb.toString();
+        }
+
+        private void histogram(StringBuilder sb, String title, long[] counts) {
+            long solved = lines - errors;
+            long max = 1;
+            for (long c : counts) max = Math.max(max, c);
+            sb.append(title).append('\n');
+            for (int len = 0; len < counts.length; len++) {
+                if (counts[len] == 0) continue;
+                sb.append(String.format("  %2d: %,14d  %5.1f%%  %s%n", len, counts[len],
+                        100.0 * counts[len] / Math.max(solved, 1), "#".repeat((int) (40 * counts[len] / max))));
+            }
+        }
+    }
+
+    public BulkAnalyzer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    public BulkAnalyzer(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(chunkSize + MAX_LINE + 1));
+    }
+
+    /** Solves every line of input, writing results to out (null to only collect totals). */
+    public Report run(Path input, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long[] lengths = new long[16];
+        long[] layerLengths = new long[Solver.MAX_DEPTH + 1];
+        long lines = 0;
+        long errors = 0;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = (size + chunkSize - 1) / chunkSize;
+            int window = pool.getParallelism() * 2;
+            ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>(window);
+            long next = 0;
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < window) {
+                    long offset = next++ * chunkSize;
+                    inFlight.add(pool.submit(() -> solveChunk(channel, offset, size, out != null)));
+                }
+                Chunk done = join(inFlight.poll());
+                if (out != null) out.write(done.out, 0, done.outLength);
+                lines += done.lines;
+                errors += done.errors;
+                for (int i = 0; i < lengths.length; i++) lengths[i] += done.lengths[i];
+                for (int i = 0; i < layerLengths.length; i++) layerLengths[i] += done.layerLengths[i];
+            }
+        }
+        if (out != null) out.flush();
+        return new Report(lines, errors, lengths, layerLengths, System.nanoTime() - start);
+    }
+
+    private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analyzing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private Chunk solveChunk(FileChannel channel, long offset, long size, boolean write) throws IOException {
+        // Read one byte before the chunk to tell whether it starts on a line boundary
+        long from = Math.max(offset - 1, 0);
+        int want = (int) Math.min(size - from, (long) chunkSize + MAX_LINE + (offset > 0 ? 1 : 0));
+        ByteBuffer buf = buffers.get().clear().limit(want);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, from + buf.position()) < 0) break;
+        }
+        byte[] bytes = buf.array();
+        int n = buf.position();
+        int end = (int) (Math.min(offset + chunkSize, size) - from);
+
+        int pos = 0;
+        if (offset > 0) {
+            // The line running into this chunk belongs to the previous one
+            while (pos < n && bytes[pos] != '\n') pos++;
+            pos++;
+        }
+        Chunk chunk = new Chunk(write ? chunkSize : 0);
+        Solver solver = SOLVERS.get();
+        AsciiLine line = new AsciiLine(bytes);
+        while (pos < end) {
+            int eol = pos;
+            while (eol < n && bytes[eol] != '\n') eol++;
+            if (eol == n && from + n < size) {
+                throw new IOException("Line at byte " + (from + pos) + " is longer than " + MAX_LINE + " bytes");
+            }
+            int lineEnd = eol > pos && bytes[eol - 1] == '\r' ? eol - 1 : eol;
+            line.set(pos, lineEnd);
+            chunk.solve(solver, line);
+            pos = eol + 1;
+        }
+        return chunk;
+    }
+
+    // Results of one chunk: output bytes and local totals
+    private static final class Chunk {
+        byte[] out;
+        int outLength;
+        long lines;
+        long errors;
+        final long[] lengths = new long[16];
+        final long[] layerLengths = new long[Solver.MAX_DEPTH + 1];
+
+        // capacity 0 keeps totals only
+        Chunk(int capacity) {
+            out = capacity > 0 ? new byte[capacity] : null;
+        }
+
+        void solve(Solver solver, AsciiLine line) {
+            lines++;
+            long state;
+            try {
+                state = PackedState.applySequence(PackedState.SOLVED, line);
+            } catch (IllegalArgumentException e) {
+                errors++;
+                if (out != null) {
+                    write("error: ");
+                    write(e.getMessage());
+                    write('\n');
+                }
+                return;
+            }
+            long solution = solver.solvePacked(state);
+            int length = Solver.packedLength(solution);
+            int layer = 0;
+            for (int i = 0; i < length; i++) if (!Solver.packedTipOnly(solution, i)) layer++;
+            lengths[length]++;
+            layerLengths[layer]++;
+            if (out == null) return;
+
+            if (length >= 10) write((char) ('0' + length / 10));
+            write((char) ('0' + length % 10));
+            for (int i = 0; i < length; i++) {
+                int entry = (int) (solution >>> (i << 2)) & 0xF;
+                write(' ');
+                byte name = AXIS_NAMES[(entry & 7) >> 1];
+                write((char) ((entry & 8) != 0 ? name | 0x20 : name));
+                if ((entry & 1) != 0) write('\'');
+            }
+            write('\n');
+        }
+
+        private void write(char c) {
+            if (outLength == out.length) out = Arrays.copyOf(out, out.length << 1);
+            out[outLength++] = (byte) c;
+        }
+
+        private void write(String s) {
+            for (int i = 0; i < s.length(); i++) write(s.charAt(i));
+        }
+    }
+
+    // Reusable CharSequence view of an ASCII line inside the read buffer
+    private static final class AsciiLine implements CharSequence {
+        private final byte[] bytes;
+        private int start;
+        private int end;
+
+        AsciiLine(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void set(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[start + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
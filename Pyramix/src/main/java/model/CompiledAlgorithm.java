@@ -0,0 +1,186 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A move sequence parsed and simplified once, with its net effect precomputed.
+ * Notation is the one Move.parseSequence reads ("R U' L"), plus lowercase letters for
+ * tip-only moves as written by the app log and Solver.format ("r u'").
+ * While parsing, consecutive turns of the same axis and kind are merged mod 3, so
+ * "R R" becomes "R'" and "R R'" or "R R R" cancel out; a cancellation can expose a
+ * new pair to merge ("R U U' R'" is empty).
+ * Every move is a fixed relabelling of the packed state (edge slots move with a flip,
+ * corner orientations add), so the whole sequence is one such relabelling and applyTo
+ * runs in constant time whatever the length.
+ */
+public final class CompiledAlgorithm {
+    public static final CompiledAlgorithm EMPTY = new CompiledAlgorithm(new byte[0]);
+
+    // Moves as MoveHistory entries (Move ordinal, + TIP_ONLY for tip-only moves)
+    private final byte[] moves;
+    // Slot j of the result takes the nibble found at bit edgeSource[j] of the input
+    private final int[] edgeSource = new int[PackedState.EDGE_COUNT];
+    private final long edgeFlip;
+    private final int[] centerTwist = new int[PackedState.CORNER_COUNT];
+    private final int[] tipTwist = new int[PackedState.CORNER_COUNT];
+
+    private CompiledAlgorithm(byte[] moves) {
+        this.moves = moves;
+        long s = PackedState.SOLVED;
+        for (byte m : moves) {
+            s = MoveHistory.isTipOnly(m) ? PackedState.applyTip(s, m & 7) : PackedState.apply(s, m & 7);
+        }
+        // Starting from solved, edge id e in slot j means slot j is fed from slot e
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            edgeSource[j] = PackedState.edgeAt(s, j) << 2;
+        }
+        long flips = 0;
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) flips |= (long) PackedState.edgeOri(s, j) << ((j << 2) + 3);
+        edgeFlip = flips;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            centerTwist[c] = PackedState.centerOri(s, c);
+            tipTwist[c] = PackedState.tipOri(s, c);
+        }
+    }
+
+    /** Parses and simplifies seq; throws IllegalArgumentException on an unknown token. */
+    public static CompiledAlgorithm compile(CharSequence seq) {
+        Metrics.count(Metrics.Counter.SEQUENCES_PARSED);
+        byte[] out = new byte[8];
+        int n = 0;
+        int len = seq.length();
+        int i = 0;
+        while (i < len) {
+            if (Character.isWhitespace(seq.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < len && !Character.isWhitespace(seq.charAt(end))) end++;
+            int entry = parseToken(seq, i, end);
+            if (n == out.length) out = Arrays.copyOf(out, n << 1);
+            n = push(out, n, entry);
+            i = end;
+        }
+        return n == 0 ? EMPTY : new CompiledAlgorithm(Arrays.copyOf(out, n));
+    }
+
+    public static CompiledAlgorithm of(Move... moves) {
+        byte[] out = new byte[moves.length];
+        int n = 0;
+        for (Move m : moves) n = push(out, n, m.ordinal());
+        return n == 0 ? EMPTY : new CompiledAlgorithm(Arrays.copyOf(out, n));
+    }
+
+    /** Algorithm from the first count MoveHistory entries of entries, simplified as compile does. */
+    public static CompiledAlgorithm fromEntries(byte[] entries, int count) {
+        byte[] out = new byte[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) n = push(out, n, entries[i] & 0xF);
+        return n == 0 ? EMPTY : new CompiledAlgorithm(Arrays.copyOf(out, n));
+    }
+
+    /** Algorithm from a Solver.solvePacked result (its entries use the same encoding). */
+    public static CompiledAlgorithm fromPacked(long packed) {
+        int len = Solver.packedLength(packed);
+        byte[] out = new byte[len];
+        int n = 0;
+        for (int i = 0; i < len; i++) n = push(out, n, (int) (packed >>> (i << 2)) & 0xF);
+        return n == 0 ? EMPTY : new CompiledAlgorithm(Arrays.copyOf(out, n));
+    }
+
+    /** The algorithm that undoes this one: the moves reversed, each turned the other way. */
+    public CompiledAlgorithm inverse() {
+        byte[] out = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++) out[i] = (byte) (moves[moves.length - 1 - i] ^ 1);
+        return moves.length == 0 ? EMPTY : new CompiledAlgorithm(out);
+    }
+
+    private static int parseToken(CharSequence seq, int start, int end) {
+        char c = seq.charAt(start);
+        int axis = switch (Character.toUpperCase(c)) {
+            case 'R' -> 0;
+            case 'L' -> 1;
+            case 'U' -> 2;
+            case 'B' -> 3;
+            default -> -1;
+        };
+        int len = end - start;
+        if (axis < 0 || len > 2 || (len == 2 && seq.charAt(start + 1) != '\'')) {
+            throw new IllegalArgumentException("Unknown move: " + seq.subSequence(start, end));
+        }
+        return axis * 2 + len - 1 + (Character.isLowerCase(c) ? MoveHistory.TIP_ONLY : 0);
+    }
+
+    // Appends entry to out[0..n), merging it with the last move of the same axis and kind
+    private static int push(byte[] out, int n, int entry) {
+        if (n > 0 && (out[n - 1] & ~1) == (entry & ~1)) {
+            // Clockwise is +1 turn and prime +2 (= -1), so merging adds turns mod 3
+            int turns = (turns(out[n - 1]) + turns(entry)) % 3;
+            if (turns == 0) return n - 1;
+            out[n - 1] = (byte) ((entry & ~1) | (turns == 2 ? 1 : 0));
+            return n;
+        }
+        out[n] = (byte) entry;
+        return n + 1;
+    }
+
+    private static int turns(int entry) {
+        return (entry & 1) == 1 ? 2 : 1;
+    }
+
+    /** The state reached by applying this algorithm to s. */
+    public long applyTo(long s) {
+        long out = 0;
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            out |= ((s >>> edgeSource[j]) & 0xF) << (j << 2);
+        }
+        out ^= edgeFlip;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            out |= (long) ((PackedState.centerOri(s, c) + centerTwist[c]) % 3) << (PackedState.CENTER_SHIFT + (c << 1));
+            out |= (long) ((PackedState.tipOri(s, c) + tipTwist[c]) % 3) << (PackedState.TIP_SHIFT + (c << 1));
+        }
+        return out;
+    }
+
+    /** Number of moves after simplification. */
+    public int length() {
+        return moves.length;
+    }
+
+    /** Move i as a MoveHistory entry. */
+    public int entry(int i) {
+        return moves[i];
+    }
+
+    public Move move(int i) {
+        return MoveHistory.move(moves[i]);
+    }
+
+    public boolean isTipOnly(int i) {
+        return MoveHistory.isTipOnly(moves[i]);
+    }
+
+    /** Simplified sequence in the notation compile reads. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(moves.length * 3);
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) sb.append(' ');
+            char axis = "RLUB".charAt((moves[i] & 7) >> 1);
+            sb.append(isTipOnly(i) ? Character.toLowerCase(axis) : axis);
+            if ((moves[i] & 1) == 1) sb.append('\'');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompiledAlgorithm other && Arrays.equals(moves, other.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(moves);
+    }
+}
@@ -0,0 +1,148 @@
+package model;
+
+/**
+ * Small integer coordinates over the packed state, used by the solver and lookup tables.
+ * - perm: rank of the (always even) edge permutation, 0..359
+ * - ori: flips of edge slots 0..4, 0..31 (slot 5 follows from the even flip sum)
+ * - center: center orientations in base 3, 0..80
+ * - tips: tip orientations in base 3, 0..80
+ * perm, ori and center together index the 933,120 tip-less positions.
+ * Move tables are indexed [coord * MOVE_COUNT + move] and built once from PackedState.apply.
+ */
+public final class Coordinates {
+    public static final int MOVE_COUNT = PackedState.MOVE_COUNT;
+    public static final int PERM_COUNT = 360;
+    public static final int ORI_COUNT = 32;
+    public static final int CENTER_COUNT = 81;
+    public static final int TIP_COUNT = 81;
+    public static final int STATE_COUNT = PERM_COUNT * ORI_COUNT * CENTER_COUNT;
+
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24, 120, 720};
+
+    static final char[] PERM_MOVE = new char[PERM_COUNT * MOVE_COUNT];
+    static final char[] ORI_MOVE = new char[ORI_COUNT * MOVE_COUNT];
+    static final char[] CENTER_MOVE = new char[CENTER_COUNT * MOVE_COUNT];
+
+    static {
+        for (int m = 0; m < MOVE_COUNT; m++) {
+            for (int p = 0; p < PERM_COUNT; p++) {
+                PERM_MOVE[p * MOVE_COUNT + m] = (char) perm(PackedState.apply(fromCoords(p, 0, 0, 0), m));
+            }
+            for (int o = 0; o < ORI_COUNT; o++) {
+                ORI_MOVE[o * MOVE_COUNT + m] = (char) ori(PackedState.apply(fromCoords(0, o, 0, 0), m));
+            }
+            for (int c = 0; c < CENTER_COUNT; c++) {
+                CENTER_MOVE[c * MOVE_COUNT + m] = (char) center(PackedState.apply(fromCoords(0, 0, c, 0), m));
+            }
+        }
+    }
+
+    private Coordinates() {}
+
+    /** Rank of the edge permutation; odd permutations share the rank of their even partner. */
+    public static int perm(long s) {
+        int rank = 0;
+        for (int i = 0; i < 5; i++) {
+            int e = PackedState.edgeAt(s, i);
+            int smaller = 0;
+            for (int j = i + 1; j < 6; j++) {
+                if (PackedState.edgeAt(s, j) < e) smaller++;
+            }
+            rank += smaller * FACTORIAL[5 - i];
+        }
+        // Lexicographic neighbours 2k and 2k+1 differ by one swap, so halving drops parity
+        return rank >> 1;
+    }
+
+    public static int ori(long s) {
+        int o = 0;
+        for (int i = 0; i < 5; i++) o |= PackedState.edgeOri(s, i) << i;
+        return o;
+    }
+
+    public static int center(long s) {
+        int c = 0;
+        for (int i = PackedState.CORNER_COUNT - 1; i >= 0; i--) c = c * 3 + PackedState.centerOri(s, i);
+        return c;
+    }
+
+    public static int tips(long s) {
+        int t = 0;
+        for (int i = PackedState.CORNER_COUNT - 1; i >= 0; i--) t = t * 3 + PackedState.tipOri(s, i);
+        return t;
+    }
+
+    /** Index of the tip-less position, 0..STATE_COUNT-1; the solved state is 0. */
+    public static int index(long s) {
+        return (perm(s) * ORI_COUNT + ori(s)) * CENTER_COUNT + center(s);
+    }
+
+    public static long fromIndex(int index) {
+        int c = index % CENTER_COUNT;
+        int rest = index / CENTER_COUNT;
+        return fromCoords(rest / ORI_COUNT, rest % ORI_COUNT, c, 0);
+    }
+
+    /**
+     * Distance table (see TableBuilder) over pairs of the edge permutation and one other
+     * coordinate, used for pruning. Built here rather than in the caller so the worker
+     * threads only run code of classes that are already initialized.
+     */
+    static byte[] permPairTable(int otherCount, char[] otherMove) {
+        return TableBuilder.build(PERM_COUNT * otherCount, MOVE_COUNT, (i, m) ->
+                PERM_MOVE[(i / otherCount) * MOVE_COUNT + m] * otherCount
+                        + otherMove[(i % otherCount) * MOVE_COUNT + m]);
+    }
+
+    /** Distance table over all tip-less positions, indexed like index(long). */
+    static byte[] stateTable() {
+        return TableBuilder.build(STATE_COUNT, MOVE_COUNT, (i, m) -> {
+            int c = i % CENTER_COUNT;
+            int rest = i / CENTER_COUNT;
+            int o = rest % ORI_COUNT;
+            int p = rest / ORI_COUNT;
+            return (PERM_MOVE[p * MOVE_COUNT + m] * ORI_COUNT + ORI_MOVE[o * MOVE_COUNT + m]) * CENTER_COUNT
+                    + CENTER_MOVE[c * MOVE_COUNT + m];
+        });
+    }
+
+    /** Builds the packed state with the given coordinates. */
+    public static long fromCoords(int perm, int ori, int center, int tips) {
+        long s = 0;
+        int rank = perm << 1;
+        int used = 0;
+        int parity = 0;
+        int[] slotEdge = new int[6];
+        for (int i = 0; i < 6; i++) {
+            int k = rank / FACTORIAL[5 - i];
+            rank %= FACTORIAL[5 - i];
+            parity += k;
+            int e = 0;
+            while (true) {
+                if ((used & (1 << e)) == 0 && k-- == 0) break;
+                e++;
+            }
+            used |= 1 << e;
+            slotEdge[i] = e;
+        }
+        if ((parity & 1) == 1) {
+            int t = slotEdge[4];
+            slotEdge[4] = slotEdge[5];
+            slotEdge[5] = t;
+        }
+
+        int flips = 0;
+        for (int i = 0; i < 6; i++) {
+            int o = i < 5 ? (ori >> i) & 1 : flips & 1;
+            flips += o;
+            s |= (long) (slotEdge[i] | (o << 3)) << (i << 2);
+        }
+        for (int i = 0; i < PackedState.CORNER_COUNT; i++) {
+            s |= (long) (center % 3) << (PackedState.CENTER_SHIFT + (i << 1));
+            s |= (long) (tips % 3) << (PackedState.TIP_SHIFT + (i << 1));
+            center /= 3;
+            tips /= 3;
+        }
+        return s;
+    }
+}
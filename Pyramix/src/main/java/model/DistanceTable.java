@@ -0,0 +1,140 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact distance to solved (layer moves, tips ignored) for all 933,120 tip-less positions,
+ * 4 bits per position indexed by Coordinates.index. The table is generated once by a
+ * breadth-first search and kept in a file that later runs memory-map instead of rebuilding.
+ * File layout: int magic, int entry count, then the packed nibbles (low nibble = even index).
+ * shared() is the process-wide table behind Pyraminx.distanceToSolved, mapped from
+ * -Dpyraminx.distanceFile (default DEFAULT_FILE in the working directory) on first use.
+ */
+public final class DistanceTable {
+    public static final String DEFAULT_FILE = "pyraminx_distance.bin";
+    private static final int MAGIC = 0x50595244; // "PYRD"
+    private static final int HEADER = 8;
+    private static final int DATA_BYTES = (Coordinates.STATE_COUNT + 1) / 2;
+    private static final Move[] MOVES = Move.values();
+    private static final System.Logger LOG = System.getLogger(DistanceTable.class.getName());
+
+    private final ByteBuffer data;
+
+    private DistanceTable(ByteBuffer data) {
+        this.data = data;
+    }
+
+    // Opened on first use of shared(), so programs that never ask for distances skip it
+    private static final class Shared {
+        static final DistanceTable TABLE = openShared();
+    }
+
+    /**
+     * Process-wide table: the -Dpyraminx.distanceFile file opened as by open(Path), or the
+     * table built in memory if that file cannot be read or written.
+     */
+    public static DistanceTable shared() {
+        return Shared.TABLE;
+    }
+
+    private static DistanceTable openShared() {
+        Path file = Path.of(System.getProperty("pyraminx.distanceFile", DEFAULT_FILE));
+        try {
+            return open(file);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot map " + file + ", building the distance table in memory", e);
+            return inMemory();
+        }
+    }
+
+    /** Opens the default table file in the working directory, generating it if needed. */
+    public static DistanceTable open() throws IOException {
+        return open(Path.of(DEFAULT_FILE));
+    }
+
+    /** Memory-maps the table at file, first generating and writing it if missing or invalid. */
+    public static DistanceTable open(Path file) throws IOException {
+        if (!isValid(file)) {
+            write(Coordinates.stateTable(), file);
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER + DATA_BYTES);
+            return new DistanceTable(map.slice(HEADER, DATA_BYTES));
+        }
+    }
+
+    /** Builds the table in memory without touching the disk. */
+    public static DistanceTable inMemory() {
+        return new DistanceTable(ByteBuffer.wrap(Coordinates.stateTable()));
+    }
+
+    public int distance(long state) {
+        return distance(Coordinates.index(state));
+    }
+
+    public int distance(int index) {
+        return (data.get(index >> 1) >> ((index & 1) << 2)) & 0xF;
+    }
+
+    /** Shortest layer solution found by stepping to any neighbour one move closer. */
+    public List<Move> solve(long state) {
+        int d = distance(state);
+        List<Move> out = new ArrayList<>(d);
+        while (d > 0) {
+            for (int m = 0; m < Coordinates.MOVE_COUNT; m++) {
+                long next = PackedState.apply(state, m);
+                if (distance(next) == d - 1) {
+                    out.add(MOVES[m]);
+                    state = next;
+                    d--;
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Number of positions at each distance, index = distance. */
+    public int[] histogram() {
+        int[] counts = new int[16];
+        for (int i = 0; i < Coordinates.STATE_COUNT; i++) counts[distance(i)]++;
+        int max = 15;
+        while (max > 0 && counts[max] == 0) max--;
+        return Arrays.copyOf(counts, max + 1);
+    }
+
+    private static boolean isValid(Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != HEADER + DATA_BYTES) return false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.BIG_ENDIAN);
+            ch.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == Coordinates.STATE_COUNT;
+        }
+    }
+
+    // Writes to a temporary file first so a crash never leaves a half-written table behind
+    private static void write(byte[] table, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(Coordinates.STATE_COUNT).flip();
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (header.hasRemaining()) ch.write(header);
+            while (body.hasRemaining()) ch.write(body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of nanosecond latencies with log-linear buckets, as in HdrHistogram:
+ * values below 128 get a bucket each, above that every power of two is split into 64
+ * buckets, so a percentile is within 1/64 (about 1.6%) of the recorded value. Values
+ * are clamped to MAX_VALUE (about 18 minutes). Recording is one atomic increment plus
+ * two adders; reading is a walk over the buckets and may see a recording half done.
+ */
+public final class LatencyHistogram {
+    public static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /** Point-in-time view: count, mean and max in nanoseconds, plus percentiles. */
+    public record Summary(long count, double mean, long p50, long p90, long p99, long p999, long max) {}
+
+    // Bucket of a value: itself below 2 * SUB_COUNT, else (shift + 1) * SUB_COUNT plus its
+    // top SUB_BITS + 1 bits, where shift drops the rest
+    private static int index(long value) {
+        if (value < SUB_COUNT << 1) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    // Smallest value that falls in the bucket
+    private static long lowest(int index) {
+        if (index < SUB_COUNT << 1) return index;
+        int shift = (index >> SUB_BITS) - 1;
+        return (long) (index - (shift << SUB_BITS)) << shift;
+    }
+
+    public void record(long nanos) {
+        long v = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(index(v));
+        total.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    /** Value at the given percentile (0..100), the low end of its bucket; 0 if empty. */
+    public long percentile(double percentile) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return lowest(i);
+        }
+        return lowest(BUCKETS - 1);
+    }
+
+    public Summary summary() {
+        long n = total.sum();
+        return new Summary(n, n == 0 ? 0 : (double) sum.sum() / n,
+                percentile(50), percentile(90), percentile(99), percentile(99.9), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters and latency histograms for the model and the view, enabled with
+ * -Dpyraminx.metrics=true. ENABLED is a static final read once at class init, so when it
+ * is off the JIT folds every count/start/stop call down to nothing. Counters are
+ * LongAdders and timers are LatencyHistograms, so recording takes no locks.
+ * Call sites time a section with: long t = Metrics.start(); ...; Metrics.stop(Timer.X, t);
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("pyraminx.metrics");
+
+    public enum Counter {
+        MOVES("moves applied"),
+        TIP_MOVES("tip-only moves applied"),
+        UNDOS("moves undone"),
+        REDOS("moves redone"),
+        SEQUENCES_PARSED("sequences parsed"),
+        SOLVES("solves run");
+
+        final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+    }
+
+    public enum Timer {
+        APPLY_SEQUENCE("apply(String)"),
+        SOLVE("solve"),
+        SAVE("save"),
+        LOAD("load"),
+        DRAW("drawPyraminx");
+
+        final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final LatencyHistogram[] TIMERS = new LatencyHistogram[Timer.values().length];
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) COUNTERS[i] = new LongAdder();
+        for (int i = 0; i < TIMERS.length; i++) TIMERS[i] = new LatencyHistogram();
+    }
+
+    /** Counter values and timer summaries at one point in time. */
+    public record Snapshot(Map<Counter, Long> counters, Map<Timer, LatencyHistogram.Summary> timers) {
+        /** One line per counter and per timer, times in microseconds. */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<Counter, Long> e : counters.entrySet()) {
+                sb.append(String.format("%-24s %,14d%n", e.getKey().label, e.getValue()));
+            }
+            for (Map.Entry<Timer, LatencyHistogram.Summary> e : timers.entrySet()) {
+                LatencyHistogram.Summary s = e.getValue();
+                sb.append(String.format("%-24s count=%,d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                        e.getKey().label, s.count(), s.mean() / 1e3, s.p50() / 1e3, s.p90() / 1e3,
+                        s.p99() / 1e3, s.p999() / 1e3, s.max() / 1e3));
+            }
+            return sb.toString();
+        }
+    }
+
+    private Metrics() {}
+
+    public static void count(Counter counter) {
+        if (ENABLED) COUNTERS[counter.ordinal()].increment();
+    }
+
+    public static void count(Counter counter, long amount) {
+        if (ENABLED) COUNTERS[counter.ordinal()].add(amount);
+    }
+
+    /** Start time for stop, or 0 without reading the clock when metrics are off. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Timer timer, long start) {
+        if (ENABLED) TIMERS[timer.ordinal()].record(System.nanoTime() - start);
+    }
+
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    public static LatencyHistogram histogram(Timer timer) {
+        return TIMERS[timer.ordinal()];
+    }
+
+    public static Snapshot snapshot() {
+        Map<Counter, Long> counters = new EnumMap<>(Counter.class);
+        for (Counter c : Counter.values()) counters.put(c, get(c));
+        Map<Timer, LatencyHistogram.Summary> timers = new EnumMap<>(Timer.class);
+        for (Timer t : Timer.values()) timers.put(t, histogram(t).summary());
+        return new Snapshot(counters, timers);
+    }
+
+    public static void reset() {
+        for (LongAdder c : COUNTERS) c.reset();
+        for (LatencyHistogram h : TIMERS) h.reset();
+    }
+}
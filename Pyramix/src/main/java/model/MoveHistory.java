@@ -0,0 +1,314 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Undo/redo history kept as one byte per move: the Move ordinal, plus TIP_ONLY for a
+ * tip-only move. Entries live in a ring buffer; everything before the cursor can be
+ * undone and everything from the cursor up to the end can be redone, so redo is a cursor
+ * move rather than a second stack. The buffer is allocated on the first push and grows on
+ * demand up to the limit, so an unused history costs a few dozen bytes; once full, the
+ * oldest entry is dropped for every new one. Not thread-safe, like Pyraminx itself.
+ * For seeking, the packed state after every checkpointInterval-th move is kept as well
+ * (see checkpoint), so seek replays at most half an interval from the nearest snapshot.
+ * Listeners hear about every change to the undoable entries as an index range, so a
+ * view can follow a long history at constant cost per move.
+ */
+public final class MoveHistory {
+    public static final int TIP_ONLY = 8;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Move[] MOVES = Move.values();
+    private static final String[] NOTATION = new String[16];
+    private static final Listener[] NO_LISTENERS = {};
+    private static final byte[] NO_ENTRIES = {};
+    private static final long[] NO_CHECKPOINTS = {};
+    private static final int INITIAL_CHECKPOINTS = 8;
+
+    static {
+        for (int entry = 0; entry < NOTATION.length; entry++) {
+            String name = "RLUB".charAt((entry & 7) >> 1) + ((entry & 1) != 0 ? "'" : "");
+            NOTATION[entry] = isTipOnly(entry) ? name.toLowerCase() : name;
+        }
+    }
+
+    /**
+     * Told about every change to the undoable entries (indexes 0..size()). First dropped
+     * entries fell off the front, shifting the rest down; then, of the oldSize - dropped
+     * entries left, those from index from on were removed and entries from..newSize - 1
+     * are the new ones. A push appends one, an undo removes one and a load replaces all.
+     */
+    public interface Listener {
+        void historyChanged(int dropped, int from, int oldSize, int newSize);
+    }
+
+    private final int limit;
+    private byte[] entries;
+    private int head;    // buffer index of the oldest entry
+    private int cursor;  // entries before the cursor are applied
+    private int end;     // entries from the cursor to end can be redone
+    private Listener[] listeners = NO_LISTENERS;
+
+    // Positions count from the oldest entry ever pushed: absolute = dropped + index.
+    // checkpoints[k] is the state at absolute position (firstCheckpoint + k) * interval.
+    private final int interval;
+    private long dropped;
+    private long[] checkpoints = NO_CHECKPOINTS;
+    private long firstCheckpoint;
+    private int checkpointCount;
+
+    public MoveHistory() {
+        this(UNLIMITED);
+    }
+
+    /** History that keeps at most limit moves, forgetting the oldest ones first. */
+    public MoveHistory(int limit) {
+        this(limit, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public MoveHistory(int limit, int checkpointInterval) {
+        if (limit <= 0) throw new IllegalArgumentException("History limit must be positive: " + limit);
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.limit = limit;
+        this.interval = checkpointInterval;
+        this.entries = NO_ENTRIES;
+    }
+
+    public static int encode(Move m, boolean tipOnly) {
+        return m.ordinal() | (tipOnly ? TIP_ONLY : 0);
+    }
+
+    public static Move move(int entry) {
+        return MOVES[entry & 7];
+    }
+
+    public static boolean isTipOnly(int entry) {
+        return (entry & TIP_ONLY) != 0;
+    }
+
+    /** App notation of an entry: R, R' for layer moves, r, r' for tip-only moves. */
+    public static String notation(int entry) {
+        return NOTATION[entry & 0xF];
+    }
+
+    public void addListener(Listener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(Listener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                Listener[] out = Arrays.copyOf(listeners, listeners.length - 1);
+                System.arraycopy(listeners, i + 1, out, i, listeners.length - 1 - i);
+                listeners = out;
+                return;
+            }
+        }
+    }
+
+    private void fire(int dropped, int from, int oldSize, int newSize) {
+        for (Listener l : listeners) l.historyChanged(dropped, from, oldSize, newSize);
+    }
+
+    /** Applies the move of an entry to a packed state. */
+    public static long apply(long s, int entry) {
+        return isTipOnly(entry) ? PackedState.applyTip(s, entry & 7) : PackedState.apply(s, entry & 7);
+    }
+
+    /** Undoes the move of an entry; the inverse of a move is the ordinal with bit 0 flipped. */
+    public static long unapply(long s, int entry) {
+        return apply(s, entry ^ 1);
+    }
+
+    /** Records a new move after the cursor and drops whatever could have been redone. */
+    public void push(int entry) {
+        if (end > cursor) {
+            // Snapshots past the cursor belonged to the dropped redo branch
+            long last = Math.floorDiv(dropped + cursor, interval);
+            checkpointCount = (int) Math.max(0, Math.min(checkpointCount, last - firstCheckpoint + 1));
+        }
+        int oldSize = cursor;
+        int shifted = 0;
+        if (cursor == entries.length) {
+            if (entries.length < limit) {
+                grow();
+            } else {
+                // Full at the limit: overwrite the oldest entry
+                head = wrap(head + 1);
+                cursor--;
+                dropped++;
+                shifted = 1;
+            }
+        }
+        entries[wrap(head + cursor)] = (byte) entry;
+        end = ++cursor;
+        fire(shifted, cursor - 1, oldSize, cursor);
+    }
+
+    /** Steps the cursor back and returns the entry to undo; -1 when there is none. */
+    public int undo() {
+        if (cursor == 0) return -1;
+        int entry = entries[wrap(head + --cursor)];
+        fire(0, cursor, cursor + 1, cursor);
+        return entry;
+    }
+
+    /** Steps the cursor forward and returns the entry to redo; -1 when there is none. */
+    public int redo() {
+        if (cursor == end) return -1;
+        int entry = entries[wrap(head + cursor++)];
+        fire(0, cursor - 1, cursor - 1, cursor);
+        return entry;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < end;
+    }
+
+    /** Number of moves that can be undone. */
+    public int size() {
+        return cursor;
+    }
+
+    /** Number of moves that can be redone. */
+    public int redoSize() {
+        return end - cursor;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /** Entry i of the undoable moves, 0 = oldest. */
+    public int get(int i) {
+        if (i < 0 || i >= cursor) throw new IndexOutOfBoundsException(i);
+        return entries[wrap(head + i)];
+    }
+
+    /** Copies the undoable entries, oldest first. */
+    public byte[] toArray() {
+        byte[] out = new byte[cursor];
+        int first = Math.min(cursor, entries.length - head);
+        System.arraycopy(entries, head, out, 0, first);
+        System.arraycopy(entries, 0, out, first, cursor - first);
+        return out;
+    }
+
+    /**
+     * Replaces the history with the first count entries of src; only the newest fit the limit.
+     * Call checkpoint with the resulting state to make the loaded moves seekable.
+     */
+    public void load(byte[] src, int count) {
+        clear();
+        int from = Math.max(0, count - limit);
+        int n = count - from;
+        if (entries.length < n) entries = new byte[n];
+        System.arraycopy(src, from, entries, 0, n);
+        cursor = end = n;
+        fire(0, 0, 0, n);
+    }
+
+    public void clear() {
+        int oldSize = cursor;
+        head = cursor = end = 0;
+        dropped = 0;
+        firstCheckpoint = 0;
+        checkpointCount = 0;
+        if (oldSize > 0) fire(0, 0, oldSize, 0);
+    }
+
+    /**
+     * Records the snapshots up to the cursor that are still missing, given the state at the
+     * cursor. Called after every push this costs nothing except when a checkpoint position is
+     * reached; after load it walks the history back once.
+     */
+    public void checkpoint(long stateAtCursor) {
+        long lowest = Math.floorDiv(dropped + interval - 1, interval);
+        if (checkpointCount == 0 || firstCheckpoint + checkpointCount < lowest) {
+            firstCheckpoint = lowest;
+            checkpointCount = 0;
+        }
+        long from = Math.max(firstCheckpoint + checkpointCount, lowest);
+        long to = Math.floorDiv(dropped + cursor, interval);
+        if (from > to) return;
+        ensureCheckpointCapacity(to);
+
+        // Walk back from the cursor, storing each checkpoint position on the way
+        long s = stateAtCursor;
+        int pos = cursor;
+        for (long n = to; n >= from; n--) {
+            int target = (int) (n * interval - dropped);
+            while (pos > target) s = unapply(s, entries[wrap(head + --pos)]);
+            checkpoints[(int) (n - firstCheckpoint)] = s;
+        }
+        checkpointCount = (int) (to - firstCheckpoint + 1);
+    }
+
+    /**
+     * Moves the cursor to index (0..size() + redoSize()) and returns the state there, starting
+     * from the nearest of the current position and the checkpoints around the target.
+     */
+    public long seek(int index, long stateAtCursor) {
+        if (index < 0 || index > end) throw new IndexOutOfBoundsException(index);
+        long s = stateAtCursor;
+        int from = cursor;
+        int best = Math.abs(index - cursor);
+        long below = Math.floorDiv(dropped + index, interval);
+        for (long n = below; n <= below + 1; n++) {
+            if (n < firstCheckpoint || n >= firstCheckpoint + checkpointCount) continue;
+            long pos = n * interval - dropped;
+            if (pos < 0 || pos > end || Math.abs(index - pos) >= best) continue;
+            best = (int) Math.abs(index - pos);
+            from = (int) pos;
+            s = checkpoints[(int) (n - firstCheckpoint)];
+        }
+        for (int i = from; i < index; i++) s = apply(s, entries[wrap(head + i)]);
+        for (int i = from; i > index; i--) s = unapply(s, entries[wrap(head + i - 1)]);
+        int oldSize = cursor;
+        cursor = index;
+        if (index != oldSize) fire(0, Math.min(index, oldSize), oldSize, index);
+        return s;
+    }
+
+    public int checkpointInterval() {
+        return interval;
+    }
+
+    private void ensureCheckpointCapacity(long number) {
+        if (number - firstCheckpoint < checkpoints.length) return;
+        // Forget snapshots of moves that fell off the front before growing
+        long lowest = Math.floorDiv(dropped + interval - 1, interval);
+        if (lowest > firstCheckpoint) {
+            int stale = (int) Math.min(lowest - firstCheckpoint, checkpointCount);
+            System.arraycopy(checkpoints, stale, checkpoints, 0, checkpointCount - stale);
+            checkpointCount -= stale;
+            firstCheckpoint = lowest;
+        }
+        if (number - firstCheckpoint >= checkpoints.length) {
+            long grown = Math.max(Math.max(checkpoints.length * 2L, INITIAL_CHECKPOINTS), number - firstCheckpoint + 1);
+            checkpoints = Arrays.copyOf(checkpoints, (int) grown);
+        }
+    }
+
+    private void grow() {
+        // Unroll the ring so the oldest entry is back at index 0
+        byte[] grown = new byte[(int) Math.min(limit, Math.max(INITIAL_CAPACITY, entries.length * 2L))];
+        int first = Math.min(end, entries.length - head);
+        System.arraycopy(entries, head, grown, 0, first);
+        System.arraycopy(entries, 0, grown, first, end - first);
+        entries = grown;
+        head = 0;
+    }
+
+    private int wrap(int i) {
+        return i >= entries.length ? i - entries.length : i;
+    }
+}
@@ -0,0 +1,256 @@
+package model;
+
+/**
+ * Packed primitive encoding of a Pyraminx state. The whole puzzle fits in one long:
+ * - bits 0..23: 6 edge slots, 4 bits each (bits 0-2 edge id, bit 3 flip)
+ * - bits 24..31: 4 center (axial) orientations, 2 bits each
+ * - bits 32..39: 4 tip orientations, 2 bits each
+ * Corners are numbered 0:U, 1:R, 2:L, 3:B and edges follow Pyraminx.EDGE_TO_FACES.
+ * Stickers are not stored: every sticker is derived from the piece that sits on it.
+ * A move is a 3-slot nibble cycle, an XOR for the flips and two mod-3 adds, all driven
+ * by the precomputed tables below.
+ */
+public final class PackedState {
+    public static final int CORNER_COUNT = 4;
+    public static final int EDGE_COUNT = 6;
+    public static final int MOVE_COUNT = 8;
+
+    public static final int CENTER_SHIFT = 24;
+    public static final int TIP_SHIFT = 32;
+    public static final long EDGE_MASK = 0xFFFFFFL;
+    public static final long CENTER_MASK = 0xFFL << CENTER_SHIFT;
+    public static final long TIP_MASK = 0xFFL << TIP_SHIFT;
+
+    /** Solved state: edge i in slot i with no flip, every orientation 0. */
+    public static final long SOLVED = 0x543210L;
+
+    // Sticker index = face * 9 + index. Facelets of a corner are listed in the order
+    // a clockwise move carries them (facelet k goes to facelet k + 1).
+    public static final int[][] TIP_STICKERS = {
+            {0, 18, 9},     // U
+            {5, 30, 14},    // R
+            {12, 32, 23},   // L
+            {3, 21, 27}     // B
+    };
+    public static final int[][] CENTER_STICKERS = {
+            {6, 24, 15},
+            {8, 34, 17},
+            {16, 35, 26},
+            {7, 25, 33}
+    };
+    // Facelet 0 lies on the lower numbered face of Pyraminx.EDGE_TO_FACES.
+    public static final int[][] EDGE_STICKERS = {
+            {2, 11}, {1, 19}, {4, 28}, {10, 20}, {13, 31}, {22, 29}
+    };
+
+    // Per axis in Move order (R, L, U, B): the corner it turns and the edge cycle
+    // (content of slot a goes to b, b to c, c to a) with the flip picked up on each step.
+    private static final int[] AXIS_CORNER = {1, 2, 0, 3};
+    private static final int[][] AXIS_EDGE_CYCLE = {
+            {0, 2, 4}, {3, 4, 5}, {0, 1, 3}, {1, 5, 2}
+    };
+    private static final int[][] AXIS_EDGE_FLIP = {
+            {1, 1, 0}, {1, 1, 0}, {1, 1, 0}, {0, 1, 1}
+    };
+
+    private static final int KIND_TIP = 0;
+    private static final int KIND_CENTER = 1;
+    private static final int KIND_EDGE = 2;
+    private static final int[] STICKER_KIND = new int[36];
+    private static final int[] STICKER_SLOT = new int[36];
+    private static final int[] STICKER_FACELET = new int[36];
+    // Bit face * 9 + index set for every sticker of an edge slot / corner
+    private static final long[] EDGE_STICKER_MASK = new long[EDGE_COUNT];
+    private static final long[] CORNER_STICKER_MASK = new long[CORNER_COUNT * 2];
+
+    private static final int[] MOVE_SRC = new int[MOVE_COUNT * 3];
+    private static final int[] MOVE_DST = new int[MOVE_COUNT * 3];
+    private static final long[] MOVE_KEEP = new long[MOVE_COUNT];
+    private static final long[] MOVE_FLIP = new long[MOVE_COUNT];
+    private static final int[] MOVE_CORNER_SHIFT = new int[MOVE_COUNT];
+    private static final int[] MOVE_TURNS = new int[MOVE_COUNT];
+
+    static {
+        for (int c = 0; c < CORNER_COUNT; c++) {
+            for (int k = 0; k < 3; k++) {
+                mapSticker(TIP_STICKERS[c][k], KIND_TIP, c, k);
+                mapSticker(CENTER_STICKERS[c][k], KIND_CENTER, c, k);
+                CORNER_STICKER_MASK[c] |= 1L << CENTER_STICKERS[c][k];
+                CORNER_STICKER_MASK[CORNER_COUNT + c] |= 1L << TIP_STICKERS[c][k];
+            }
+        }
+        for (int e = 0; e < EDGE_COUNT; e++) {
+            mapSticker(EDGE_STICKERS[e][0], KIND_EDGE, e, 0);
+            mapSticker(EDGE_STICKERS[e][1], KIND_EDGE, e, 1);
+            EDGE_STICKER_MASK[e] = 1L << EDGE_STICKERS[e][0] | 1L << EDGE_STICKERS[e][1];
+        }
+
+        for (int m = 0; m < MOVE_COUNT; m++) {
+            int axis = m >> 1;
+            boolean prime = (m & 1) == 1;
+            int[] cyc = AXIS_EDGE_CYCLE[axis];
+            int[] flip = AXIS_EDGE_FLIP[axis];
+            long keep = ~0L;
+            long flips = 0;
+            for (int k = 0; k < 3; k++) {
+                // A prime move walks the cycle backwards; the flip of a step is its own inverse.
+                int from = prime ? cyc[(k + 1) % 3] : cyc[k];
+                int to = prime ? cyc[k] : cyc[(k + 1) % 3];
+                MOVE_SRC[m * 3 + k] = from << 2;
+                MOVE_DST[m * 3 + k] = to << 2;
+                keep &= ~(0xFL << (to << 2));
+                if (flip[k] == 1) flips |= 0x8L << (to << 2);
+            }
+            MOVE_KEEP[m] = keep;
+            MOVE_FLIP[m] = flips;
+            MOVE_CORNER_SHIFT[m] = AXIS_CORNER[axis] << 1;
+            MOVE_TURNS[m] = prime ? 2 : 1;
+        }
+    }
+
+    private PackedState() {}
+
+    private static void mapSticker(int sticker, int kind, int slot, int facelet) {
+        STICKER_KIND[sticker] = kind;
+        STICKER_SLOT[sticker] = slot;
+        STICKER_FACELET[sticker] = facelet;
+    }
+
+    public static long apply(long s, Move m) {
+        return apply(s, m.ordinal());
+    }
+
+    /** Applies a full layer move (tip, center and three edges) given by its Move ordinal. */
+    public static long apply(long s, int move) {
+        int i = move * 3;
+        long a = (s >>> MOVE_SRC[i]) & 0xF;
+        long b = (s >>> MOVE_SRC[i + 1]) & 0xF;
+        long c = (s >>> MOVE_SRC[i + 2]) & 0xF;
+        s = (s & MOVE_KEEP[move])
+                | (a << MOVE_DST[i]) | (b << MOVE_DST[i + 1]) | (c << MOVE_DST[i + 2]);
+        s ^= MOVE_FLIP[move];
+        int shift = MOVE_CORNER_SHIFT[move];
+        int turns = MOVE_TURNS[move];
+        s = twist(s, CENTER_SHIFT + shift, turns);
+        return twist(s, TIP_SHIFT + shift, turns);
+    }
+
+    public static long applyTip(long s, Move m) {
+        return applyTip(s, m.ordinal());
+    }
+
+    /** Applies a tip-only move: only the tip of the turned corner rotates. */
+    public static long applyTip(long s, int move) {
+        return twist(s, TIP_SHIFT + MOVE_CORNER_SHIFT[move], MOVE_TURNS[move]);
+    }
+
+    /**
+     * Applies a sequence in Move.parseSequence syntax ("R U' L") straight to the state,
+     * without building a token list.
+     */
+    public static long applySequence(long s, CharSequence seq) {
+        int n = seq.length();
+        int i = 0;
+        while (i < n) {
+            if (Character.isWhitespace(seq.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < n && !Character.isWhitespace(seq.charAt(end))) end++;
+            int axis = switch (seq.charAt(i)) {
+                case 'R' -> 0;
+                case 'L' -> 1;
+                case 'U' -> 2;
+                case 'B' -> 3;
+                default -> -1;
+            };
+            int len = end - i;
+            if (axis < 0 || len > 2 || (len == 2 && seq.charAt(i + 1) != '\'')) {
+                throw new IllegalArgumentException("Unknown move: " + seq.subSequence(i, end));
+            }
+            s = apply(s, axis * 2 + len - 1);
+            i = end;
+        }
+        return s;
+    }
+
+    /**
+     * Stickers that may look different in b than in a, as a mask with bit face * 9 + index
+     * set: every sticker of each edge slot, center and tip whose bits differ. A move marks
+     * the 6 edge, 3 center and 3 tip stickers it cycles.
+     */
+    public static long changedStickers(long a, long b) {
+        long diff = a ^ b;
+        long mask = 0;
+        for (int j = 0; j < EDGE_COUNT; j++) {
+            if ((diff & (0xFL << (j << 2))) != 0) mask |= EDGE_STICKER_MASK[j];
+        }
+        // Centers then tips, 2 bits per corner
+        diff >>>= CENTER_SHIFT;
+        for (int k = 0; k < CORNER_COUNT * 2; k++) {
+            if ((diff & (3L << (k << 1))) != 0) mask |= CORNER_STICKER_MASK[k];
+        }
+        return mask;
+    }
+
+    private static long twist(long s, int shift, int turns) {
+        long v = ((s >>> shift) & 3) + turns;
+        if (v >= 3) v -= 3;
+        return (s & ~(3L << shift)) | (v << shift);
+    }
+
+    public static int tipOri(long s, int corner) {
+        return (int) (s >>> (TIP_SHIFT + (corner << 1))) & 3;
+    }
+
+    public static int centerOri(long s, int corner) {
+        return (int) (s >>> (CENTER_SHIFT + (corner << 1))) & 3;
+    }
+
+    /** Id of the edge piece sitting in the given slot. */
+    public static int edgeAt(long s, int slot) {
+        return (int) (s >>> (slot << 2)) & 7;
+    }
+
+    /** Flip (0/1) of the edge piece sitting in the given slot. */
+    public static int edgeOri(long s, int slot) {
+        return (int) (s >>> ((slot << 2) + 3)) & 1;
+    }
+
+    public static boolean isSolved(long s) {
+        return s == SOLVED;
+    }
+
+    /**
+     * Builds a packed state from plain arrays. slotEdge/slotOri are indexed by slot,
+     * tipOri/centerOri by corner. No reachability check is made.
+     */
+    public static long pack(int[] tipOri, int[] centerOri, int[] slotEdge, int[] slotOri) {
+        long s = 0;
+        for (int e = 0; e < EDGE_COUNT; e++) {
+            s |= (long) ((slotEdge[e] & 7) | ((slotOri[e] & 1) << 3)) << (e << 2);
+        }
+        for (int c = 0; c < CORNER_COUNT; c++) {
+            s |= (long) (centerOri[c] % 3) << (CENTER_SHIFT + (c << 1));
+            s |= (long) (tipOri[c] % 3) << (TIP_SHIFT + (c << 1));
+        }
+        return s;
+    }
+
+    /** Face (0..3) whose color shows on the given sticker. */
+    public static int stickerFace(long s, int face, int index) {
+        int sticker = face * 9 + index;
+        int slot = STICKER_SLOT[sticker];
+        int facelet = STICKER_FACELET[sticker];
+        return switch (STICKER_KIND[sticker]) {
+            case KIND_TIP -> TIP_STICKERS[slot][(facelet - tipOri(s, slot) + 3) % 3] / 9;
+            case KIND_CENTER -> CENTER_STICKERS[slot][(facelet - centerOri(s, slot) + 3) % 3] / 9;
+            default -> EDGE_STICKERS[edgeAt(s, slot)][facelet ^ edgeOri(s, slot)] / 9;
+        };
+    }
+
+    public static Color4 sticker(long s, int face, int index) {
+        return Pyraminx.FACE_COLOR[stickerFace(s, face, index)];
+    }
+}
@@ -1,8 +1,9 @@
 package model;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.List;
 import static model.Utils.rnd;
 
 /**
@@ -10,76 +11,99 @@ import static model.Utils.rnd;
  * - 4 faces: 0:Y, 1:R, 2:G, 3:B
  * - 6 global edges (ids 0..5), each has orientation 0/1
  * - Each face holds 3 "edge slots" pointing to global edges (id + ori)
- * - R, L, U moves permute tips, centers (orientations), and local 3-edge cycles
+ * - R, L, U, B moves permute tips, centers (orientations), and local 3-edge cycles
+ * The whole state lives in one packed long (see PackedState); stickers,
+ * orientations and edge slots are read back from it on demand.
  */
 public class Pyraminx {
     public static final Color4[] FACE_COLOR = {
             Color4.YELLOW, Color4.RED, Color4.GREEN, Color4.BLUE
     };
 
-    private final int[] tipOri = new int[4];
-    private final int[] centerOri = new int[4];
-    private static final int EDGE_COUNT = 6;
-    private final int[] edgeOri = new int[EDGE_COUNT];
-    private final int[][] faceEdgeId = new int[4][3];
-    private final int[][] faceEdgeOri = new int[4][3];
-    private final Color4[][] faces = new Color4[4][9];
-    private final java.util.Stack<Move> history = new java.util.Stack<>();
-    private final java.util.Stack<Move> redoStack = new java.util.Stack<>();
-    private final java.util.Stack<Boolean> tipOnlyHistory = new java.util.Stack<>();
-    private final java.util.Stack<Boolean> tipOnlyRedo = new java.util.Stack<>();
+    private static final int EDGE_COUNT = PackedState.EDGE_COUNT;
+    private long state = PackedState.SOLVED;
+    private final MoveHistory history;
 
     public static final int[][] EDGE_TO_FACES = {
             {0,1}, {0,2}, {0,3}, {1,2}, {1,3}, {2,3}
     };
 
+    // Algorithms used by the solving helpers, compiled once
+    private static final CompiledAlgorithm CLOCKWISE_CYCLE = CompiledAlgorithm.compile("R' U' R U' R' U' R");
+    private static final CompiledAlgorithm ANTI_CLOCKWISE_CYCLE = CompiledAlgorithm.compile("L U L' U L U L'");
+    private static final CompiledAlgorithm RIGHT_BLOCKS = CompiledAlgorithm.compile("L R U R' U' L'");
+    private static final CompiledAlgorithm LEFT_BLOCKS = CompiledAlgorithm.compile("L U R U' R' L");
+    private static final CompiledAlgorithm FLIP_CASE = CompiledAlgorithm.compile("R' L R L' U L' U' L");
+
+    // Edge slots touching each face, in the order faceEdgeId is saved
+    public static final int[][] FACE_EDGES = {
+            {0,1,2}, {0,3,4}, {1,3,5}, {2,4,5}
+    };
+
     public Color4 getSticker(int face, int index) {
-        return faces[face][index];
+        return PackedState.sticker(state, face, index);
     }
 
-    public int getCenterOri(int face) { return centerOri[face]; }
-    public int getTipOri(int face) { return tipOri[face]; }
+    public int getCenterOri(int face) { return PackedState.centerOri(state, face); }
+    public int getTipOri(int face) { return PackedState.tipOri(state, face); }
 
     public Color4 getFaceColor(int face, int index) {
-        return faces[face][index];
+        return getSticker(face, index);
     }
 
-    public Pyraminx() {
-        resetSolved();
+    public long getState() {
+        return state;
     }
 
-    public final void resetSolved() {
-        Arrays.fill(tipOri, 0);
-        Arrays.fill(centerOri, 0);
-        Arrays.fill(edgeOri, 0);
-
-        faceEdgeId[0][0] = 0; faceEdgeOri[0][0] = 0;
-        faceEdgeId[0][1] = 1; faceEdgeOri[0][1] = 0;
-        faceEdgeId[0][2] = 2; faceEdgeOri[0][2] = 0;
-
-        faceEdgeId[1][0] = 0; faceEdgeOri[1][0] = 0;
-        faceEdgeId[1][1] = 3; faceEdgeOri[1][1] = 0;
-        faceEdgeId[1][2] = 4; faceEdgeOri[1][2] = 0;
-
-        faceEdgeId[2][0] = 1; faceEdgeOri[2][0] = 0;
-        faceEdgeId[2][1] = 3; faceEdgeOri[2][1] = 0;
-        faceEdgeId[2][2] = 5; faceEdgeOri[2][2] = 0;
+    /** Immutable snapshot of the current position, usable as a map key. */
+    public PyraminxState toState() {
+        return PyraminxState.of(state);
+    }
 
-        faceEdgeId[3][0] = 2; faceEdgeOri[3][0] = 0;
-        faceEdgeId[3][1] = 4; faceEdgeOri[3][1] = 0;
-        faceEdgeId[3][2] = 5; faceEdgeOri[3][2] = 0;
+    public Pyraminx() {
+        this(MoveHistory.UNLIMITED);
+    }
 
-        for (int f = 0; f < 4; f++) {
-            for (int i = 0; i < 9; i++) {
-                faces[f][i] = FACE_COLOR[f];
-            }
-        }
+    /** Puzzle whose undo history keeps only the last historyLimit moves. */
+    public Pyraminx(int historyLimit) {
+        history = new MoveHistory(historyLimit);
+        resetSolved();
+    }
 
+    public final void resetSolved() {
+        state = PackedState.SOLVED;
         clearHistory();
     }
 
     // Save state to JSON file
     public void saveToFile(String filename) throws IOException {
+        saveToFile(filename, SaveFormat.JSON);
+    }
+
+    public void saveToFile(String filename, SaveFormat format) throws IOException {
+        PyraminxEvents.Save event = new PyraminxEvents.Save();
+        event.begin();
+        long t = Metrics.start();
+        try {
+            writeSave(filename, format);
+        } finally {
+            Metrics.stop(Metrics.Timer.SAVE, t);
+        }
+        if (event.shouldCommit()) {
+            event.path = filename;
+            event.format = format.name();
+            event.bytes = Files.size(Path.of(filename));
+            event.historyLength = history.size();
+            event.commit();
+        }
+    }
+
+    private void writeSave(String filename, SaveFormat format) throws IOException {
+        if (format == SaveFormat.BINARY) {
+            byte[] entries = history.toArray();
+            BinarySave.write(Path.of(filename), state, entries, entries.length);
+            return;
+        }
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
             writer.write("{\n");
 
@@ -88,7 +112,7 @@ public class Pyraminx {
             for (int f = 0; f < 4; f++) {
                 writer.write("    [");
                 for (int i = 0; i < 9; i++) {
-                    writer.write("\"" + faces[f][i].name() + "\"");
+                    writer.write("\"" + getSticker(f, i).name() + "\"");
                     if (i < 8) writer.write(", ");
                 }
                 writer.write("]");
@@ -100,7 +124,7 @@ public class Pyraminx {
             // Save tip orientations
             writer.write("  \"tipOri\": [");
             for (int i = 0; i < 4; i++) {
-                writer.write(String.valueOf(tipOri[i]));
+                writer.write(String.valueOf(getTipOri(i)));
                 if (i < 3) writer.write(", ");
             }
             writer.write("],\n");
@@ -108,12 +132,16 @@ public class Pyraminx {
             // Save center orientations
             writer.write("  \"centerOri\": [");
             for (int i = 0; i < 4; i++) {
-                writer.write(String.valueOf(centerOri[i]));
+                writer.write(String.valueOf(getCenterOri(i)));
                 if (i < 3) writer.write(", ");
             }
             writer.write("],\n");
 
             // Save edge orientations
+            int[] edgeOri = new int[EDGE_COUNT];
+            for (int slot = 0; slot < EDGE_COUNT; slot++) {
+                edgeOri[PackedState.edgeAt(state, slot)] = PackedState.edgeOri(state, slot);
+            }
             writer.write("  \"edgeOri\": [");
             for (int i = 0; i < EDGE_COUNT; i++) {
                 writer.write(String.valueOf(edgeOri[i]));
@@ -126,7 +154,7 @@ public class Pyraminx {
             for (int f = 0; f < 4; f++) {
                 writer.write("    [");
                 for (int i = 0; i < 3; i++) {
-                    writer.write(String.valueOf(faceEdgeId[f][i]));
+                    writer.write(String.valueOf(PackedState.edgeAt(state, FACE_EDGES[f][i])));
                     if (i < 2) writer.write(", ");
                 }
                 writer.write("]");
@@ -140,7 +168,7 @@ public class Pyraminx {
             for (int f = 0; f < 4; f++) {
                 writer.write("    [");
                 for (int i = 0; i < 3; i++) {
-                    writer.write(String.valueOf(faceEdgeOri[f][i]));
+                    writer.write(String.valueOf(PackedState.edgeOri(state, FACE_EDGES[f][i])));
                     if (i < 2) writer.write(", ");
                 }
                 writer.write("]");
@@ -149,13 +177,13 @@ public class Pyraminx {
             }
             writer.write("  ],\n");
 
-            // Save move history
+            // Save move history in app notation, lowercase for tip-only moves
             writer.write("  \"history\": [");
-            int idx = 0;
-            for (Move m : history) {
-                writer.write("\"" + m.name() + "\"");
-                if (idx < history.size() - 1) writer.write(", ");
-                idx++;
+            for (int i = 0; i < history.size(); i++) {
+                if (i > 0) writer.write(", ");
+                writer.write('"');
+                writer.write(MoveHistory.notation(history.get(i)));
+                writer.write('"');
             }
             writer.write("]\n");
 
@@ -163,141 +191,60 @@ public class Pyraminx {
         }
     }
 
-    // Load state from JSON file
+    // Load state from a JSON or binary save file, detected from its first bytes
     public void loadFromFile(String filename) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            StringBuilder json = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                json.append(line.trim());
-            }
-
-            parseJSON(json.toString());
+        PyraminxEvents.Load event = new PyraminxEvents.Load();
+        event.begin();
+        long t = Metrics.start();
+        try {
+            readSave(Path.of(filename));
+        } finally {
+            Metrics.stop(Metrics.Timer.LOAD, t);
         }
-    }
-
-    private void parseJSON(String json) {
-        // Extract each field value using indexOf
-        int facesStart = json.indexOf("\"faces\":");
-        int tipOriStart = json.indexOf("\"tipOri\":");
-        int centerOriStart = json.indexOf("\"centerOri\":");
-        int edgeOriStart = json.indexOf("\"edgeOri\":");
-        int faceEdgeIdStart = json.indexOf("\"faceEdgeId\":");
-        int faceEdgeOriStart = json.indexOf("\"faceEdgeOri\":");
-        int historyStart = json.indexOf("\"history\":");
-
-        // Parse faces
-        if (facesStart != -1) {
-            int start = json.indexOf('[', facesStart);
-            int end = findMatchingBracket(json, start);
-            parseFaces(json.substring(start, end + 1));
+        if (event.shouldCommit()) {
+            event.path = filename;
+            event.bytes = Files.size(Path.of(filename));
+            event.historyLength = history.size();
+            event.commit();
         }
-
-        // Parse tipOri
-        if (tipOriStart != -1) {
-            int start = json.indexOf('[', tipOriStart);
-            int end = json.indexOf(']', start);
-            parseIntArray(json.substring(start + 1, end), tipOri);
-        }
-
-        // Parse centerOri
-        if (centerOriStart != -1) {
-            int start = json.indexOf('[', centerOriStart);
-            int end = json.indexOf(']', start);
-            parseIntArray(json.substring(start + 1, end), centerOri);
-        }
-
-        // Parse edgeOri
-        if (edgeOriStart != -1) {
-            int start = json.indexOf('[', edgeOriStart);
-            int end = json.indexOf(']', start);
-            parseIntArray(json.substring(start + 1, end), edgeOri);
-        }
-
-        // Parse faceEdgeId
-        if (faceEdgeIdStart != -1) {
-            int start = json.indexOf('[', faceEdgeIdStart);
-            int end = findMatchingBracket(json, start);
-            parse2DIntArray(json.substring(start, end + 1), faceEdgeId);
-        }
-
-        // Parse faceEdgeOri
-        if (faceEdgeOriStart != -1) {
-            int start = json.indexOf('[', faceEdgeOriStart);
-            int end = findMatchingBracket(json, start);
-            parse2DIntArray(json.substring(start, end + 1), faceEdgeOri);
-        }
-
-        // Parse history
-        if (historyStart != -1) {
-            int start = json.indexOf('[', historyStart);
-            int end = json.indexOf(']', start);
-            if (start != -1 && end != -1) {
-                parseHistory(json.substring(start + 1, end));
-            }
-        }
-
-        redoStack.clear();
     }
 
-    private int findMatchingBracket(String json, int openBracket) {
-        int depth = 0;
-        for (int i = openBracket; i < json.length(); i++) {
-            if (json.charAt(i) == '[') depth++;
-            else if (json.charAt(i) == ']') {
-                depth--;
-                if (depth == 0) return i;
-            }
+    private void readSave(Path file) throws IOException {
+        if (BinarySave.isBinary(file)) {
+            BinarySave save = BinarySave.read(file);
+            String problem = StateValidator.check(save.state);
+            if (problem != null) throw new IOException("Invalid save file: " + problem);
+            state = save.state;
+            history.load(save.history, save.historyLength);
+            history.checkpoint(state);
+            return;
         }
-        return json.length() - 1;
-    }
-
-    private void parseFaces(String json) {
-        json = json.substring(1, json.length() - 1); // Remove outer brackets
-        String[] faceArrays = json.split("\\],\\s*\\[");
 
-        for (int f = 0; f < 4 && f < faceArrays.length; f++) {
-            String faceStr = faceArrays[f].replaceAll("[\\[\\]]", "");
-            String[] colors = faceStr.split(",\\s*");
-
-            for (int i = 0; i < 9 && i < colors.length; i++) {
-                String colorName = colors[i].replaceAll("\"", "").trim();
-                faces[f][i] = Color4.valueOf(colorName);
-            }
-        }
-    }
-
-    private void parseIntArray(String json, int[] arr) {
-        String[] values = json.split(",\\s*");
-        for (int i = 0; i < arr.length && i < values.length; i++) {
-            arr[i] = Integer.parseInt(values[i].trim());
-        }
-    }
-
-    private void parse2DIntArray(String json, int[][] arr) {
-        json = json.substring(1, json.length() - 1); // Remove outer brackets
-        String[] rows = json.split("\\],\\s*\\[");
-
-        for (int i = 0; i < arr.length && i < rows.length; i++) {
-            String row = rows[i].replaceAll("[\\[\\]]", "");
-            String[] values = row.split(",\\s*");
-            for (int j = 0; j < arr[i].length && j < values.length; j++) {
-                arr[i][j] = Integer.parseInt(values[j].trim());
-            }
-        }
-    }
-
-    private void parseHistory(String json) {
-        history.clear();
-        if (json.trim().isEmpty()) return;
-
-        String[] moves = json.split(",\\s*");
-        for (String moveStr : moves) {
-            moveStr = moveStr.replaceAll("\"", "").trim();
-            if (!moveStr.isEmpty()) {
-                history.push(Move.valueOf(moveStr));
+        SaveReader save = SaveReader.read(file);
+        long loaded;
+        try {
+            // The stickers are what the player saw, so with all 36 present they define the
+            // state and the piece arrays are ignored; older saves only have the pieces
+            if (save.faceCount == StateValidator.STICKER_COUNT) {
+                loaded = StateValidator.fromStickers(save.faces);
+            } else {
+                // edgeOri is derived from the edge slots, so it is not read back
+                int[] slotEdge = new int[EDGE_COUNT];
+                int[] slotOri = new int[EDGE_COUNT];
+                for (int f = 0; f < 4; f++) {
+                    for (int i = 0; i < 3; i++) {
+                        slotEdge[FACE_EDGES[f][i]] = save.faceEdgeId[f * 3 + i];
+                        slotOri[FACE_EDGES[f][i]] = save.faceEdgeOri[f * 3 + i];
+                    }
+                }
+                loaded = StateValidator.fromPieces(save.tipOri, save.centerOri, slotEdge, slotOri);
             }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid save file: " + e.getMessage(), e);
         }
+        state = loaded;
+        history.load(save.history, save.historyLength);
+        history.checkpoint(state);
     }
 
     public void scramble(int n) {
@@ -307,78 +254,96 @@ public class Pyraminx {
         }
     }
 
+    // Resets to a uniformly random position, recorded as the short scramble that reaches it
+    public void scrambleRandomState() {
+        resetSolved();
+        apply(Scrambler.current().next().scramble());
+    }
+
     public void apply(Move m) {
         apply(m, false);
     }
 
     public void apply(Move m, boolean tipOnly) {
-        if (tipOnly) {
-            // Tip-only moves: just rotate the tip, no layer movement
-            switch (m) {
-                case R -> rTip();
-                case R_PRIME -> { rTip(); rTip(); }
-                case L -> lTip();
-                case L_PRIME -> { lTip(); lTip(); }
-                case U -> uTip();
-                case U_PRIME -> { uTip(); uTip(); }
-                case B -> bTip();
-                case B_PRIME -> { bTip(); bTip(); }
-            }
-        } else {
-            // Normal moves with full layer rotation
-            switch (m) {
-                case R -> rCW();
-                case R_PRIME -> { rCW(); rCW(); }
-                case L -> lCW();
-                case L_PRIME -> { lCW(); lCW(); }
-                case U -> uCW();
-                case U_PRIME -> { uCW(); uCW(); }
-                case B -> bCW();
-                case B_PRIME -> { bCW(); bCW(); }
-            }
-        }
-        history.push(m);
-        tipOnlyHistory.push(tipOnly);
-        redoStack.clear();
-        tipOnlyRedo.clear();
+        // Tip-only moves just rotate the tip, normal moves turn the whole layer
+        state = tipOnly ? PackedState.applyTip(state, m) : PackedState.apply(state, m);
+        Metrics.count(tipOnly ? Metrics.Counter.TIP_MOVES : Metrics.Counter.MOVES);
+        history.push(MoveHistory.encode(m, tipOnly));
+        history.checkpoint(state);
     }
 
     public void apply(String sequence) {
-        List<Move> seq = Move.parseSequence(sequence);
-        for (Move m : seq) apply(m);
+        PyraminxEvents.ApplySequence event = new PyraminxEvents.ApplySequence();
+        event.begin();
+        long t = Metrics.start();
+        CompiledAlgorithm algorithm;
+        try {
+            algorithm = AlgorithmCache.shared().get(sequence);
+            apply(algorithm);
+        } finally {
+            Metrics.stop(Metrics.Timer.APPLY_SEQUENCE, t);
+        }
+        if (event.shouldCommit()) {
+            event.characters = sequence.length();
+            event.moves = algorithm.length();
+            event.commit();
+        }
+    }
+
+    // Applies the whole algorithm at once and records its simplified moves
+    public void apply(CompiledAlgorithm algorithm) {
+        state = algorithm.applyTo(state);
+        for (int i = 0; i < algorithm.length(); i++) history.push(algorithm.entry(i));
+        history.checkpoint(state);
+        if (Metrics.ENABLED) {
+            int tips = 0;
+            for (int i = 0; i < algorithm.length(); i++) if (algorithm.isTipOnly(i)) tips++;
+            Metrics.count(Metrics.Counter.MOVES, algorithm.length() - tips);
+            Metrics.count(Metrics.Counter.TIP_MOVES, tips);
+        }
     }
 
     public boolean canUndo() {
-        return !history.isEmpty();
+        return history.canUndo();
     }
 
     public boolean canRedo() {
-        return !redoStack.isEmpty();
+        return history.canRedo();
     }
 
     public void undo() {
         if (!canUndo()) return;
 
-        Move lastMove = history.pop();
-        boolean wasTipOnly = tipOnlyHistory.pop();
-
-        redoStack.push(lastMove);
-        tipOnlyRedo.push(wasTipOnly);
-
-        Move inverse = getInverse(lastMove);
-        applyWithoutHistory(inverse, wasTipOnly);
+        int last = history.undo();
+        Move inverse = getInverse(MoveHistory.move(last));
+        applyWithoutHistory(inverse, MoveHistory.isTipOnly(last));
+        Metrics.count(Metrics.Counter.UNDOS);
     }
 
     public void redo() {
         if (!canRedo()) return;
 
-        Move moveToRedo = redoStack.pop();
-        boolean wasTipOnly = tipOnlyRedo.pop();
+        int next = history.redo();
+        applyWithoutHistory(MoveHistory.move(next), MoveHistory.isTipOnly(next));
+        Metrics.count(Metrics.Counter.REDOS);
+    }
+
+    /**
+     * Jumps to the point in history where index moves are applied (0..getHistoryLength()),
+     * like calling undo or redo repeatedly but replaying only from the nearest checkpoint.
+     */
+    public void seekTo(int index) {
+        state = history.seek(index, state);
+    }
 
-        history.push(moveToRedo);
-        tipOnlyHistory.push(wasTipOnly);
+    /** Number of moves currently applied, i.e. the index seekTo would return to. */
+    public int getHistoryPosition() {
+        return history.size();
+    }
 
-        applyWithoutHistory(moveToRedo, wasTipOnly);
+    /** Number of moves that can be reached with seekTo, including redoable ones. */
+    public int getHistoryLength() {
+        return history.size() + history.redoSize();
     }
 
     Move getInverse(Move m) {
@@ -395,338 +360,129 @@ public class Pyraminx {
     }
 
     private void applyWithoutHistory(Move m, boolean tipOnly) {
-        if (tipOnly) {
-            // Tip-only moves: just rotate the tip, no layer movement
-            switch (m) {
-                case R -> rTip();
-                case R_PRIME -> { rTip(); rTip(); }
-                case L -> lTip();
-                case L_PRIME -> { lTip(); lTip(); }
-                case U -> uTip();
-                case U_PRIME -> { uTip(); uTip(); }
-                case B -> bTip();
-                case B_PRIME -> { bTip(); bTip(); }
-            }
-        } else {
-            switch (m) {
-                case R -> rCW();
-                case R_PRIME -> { rCW(); rCW(); }
-                case L -> lCW();
-                case L_PRIME -> { lCW(); lCW(); }
-                case U -> uCW();
-                case U_PRIME -> { uCW(); uCW(); }
-                case B -> bCW();
-                case B_PRIME -> { bCW(); bCW(); }
-            }
-        }
+        state = tipOnly ? PackedState.applyTip(state, m) : PackedState.apply(state, m);
     }
 
     public String getMoveHistory() {
-        StringBuilder sb = new StringBuilder();
-        for (Move m : history) {
-            sb.append(m.toString().replace("_PRIME", "'")).append(" ");
+        int n = history.size();
+        StringBuilder sb = new StringBuilder(n * 3);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(MoveHistory.notation(history.get(i)));
         }
-        return sb.toString().trim();
+        return sb.toString();
     }
 
     public int getMoveCount() {
         return history.size();
     }
 
-    public void clearHistory() {
-        history.clear();
-        redoStack.clear();
-        tipOnlyHistory.clear();
-        tipOnlyRedo.clear();
+    /** Encoded history entry at index (0..getHistoryPosition() - 1), see MoveHistory.notation. */
+    public int getHistoryEntry(int index) {
+        return history.get(index);
     }
 
-    public boolean tipsSolved() {
-        for (int t : tipOri) if (t != 0) return false;
-        return true;
-    }
-
-    public boolean centersSolved() {
-        for (int c : centerOri) if (c != 0) return false;
-        return true;
+    /** Follows changes to the moves before the history cursor, see MoveHistory.Listener. */
+    public void addHistoryListener(MoveHistory.Listener listener) {
+        history.addListener(listener);
     }
 
-    public boolean firstLayerEdgesSolved() {
-        return faceEdgeId[0][0] == 0 && faceEdgeOri[0][0] == 0
-                && faceEdgeId[0][1] == 1 && faceEdgeOri[0][1] == 0
-                && faceEdgeId[0][2] == 2 && faceEdgeOri[0][2] == 0;
-    }
-
-    public boolean isSolved() {
-        if (!tipsSolved() || !centersSolved()) return false;
-
-        int[][] solvedIds = {
-                {0,1,2}, {0,3,4}, {1,3,5}, {2,4,5}
-        };
-
-        for (int f = 0; f < 4; f++) {
-            for (int s = 0; s < 3; s++) {
-                if (faceEdgeId[f][s] != solvedIds[f][s]) return false;
-                if (faceEdgeOri[f][s] != 0) return false;
-            }
-        }
-
-        return true;
-    }
-
-    private void rotateTip(int face) { tipOri[face] = (tipOri[face] + 1) % 3; }
-    private void rotateCenter(int face) { centerOri[face] = (centerOri[face] + 1) % 3;}
-
-    private void rCW() {
-        rotateTip(1);
-        rotateCenter(1);
-
-        cycle3Edges(
-                1, 0,
-                3, 2,
-                0, 1
-        );
-        Color4 temp;
-
-        temp = faces[1][5];
-        faces[1][5] = faces[3][3];
-        faces[3][3] = faces[0][5];
-        faces[0][5] = temp;
-
-        temp = faces[1][2];
-        faces[1][2] = faces[3][1];
-        faces[3][1] = faces[0][2];
-        faces[0][2] = temp;
-
-        temp = faces[1][4];
-        faces[1][4] = faces[3][4];
-        faces[3][4] = faces[0][4];
-        faces[0][4] = temp;
-
-        temp = faces[1][8];
-        faces[1][8] = faces[3][7];
-        faces[3][7] = faces[0][8];
-        faces[0][8] = temp;
-    }
-
-    private void rTip(){
-        rotateTip(1);
-        Color4 temp;
-
-        temp = faces[1][5];
-        faces[1][5] = faces[3][3];
-        faces[3][3] = faces[0][5];
-        faces[0][5] = temp;
-    }
-
-    private void lCW() {
-        rotateTip(2);
-        rotateCenter(2);
-        cycle3Edges(
-                2, 0,
-                0, 2,
-                3, 1
-        );
-
-        Color4 temp;
-
-        temp = faces[1][3];
-        faces[1][3] = faces[2][5];
-        faces[2][5] = faces[3][5];
-        faces[3][5] = temp;
-
-        temp = faces[1][1];
-        faces[1][1] = faces[2][4];
-        faces[2][4] = faces[3][4];
-        faces[3][4] = temp;
-
-        temp = faces[1][7];
-        faces[1][7] = faces[2][8];
-        faces[2][8] = faces[3][8];
-        faces[3][8] = temp;
-
-        temp = faces[1][4];
-        faces[1][4] = faces[2][2];
-        faces[2][2] = faces[3][2];
-        faces[3][2] = temp;
+    public void removeHistoryListener(MoveHistory.Listener listener) {
+        history.removeListener(listener);
     }
 
-    private void lTip(){
-        Color4 temp;
-
-        temp = faces[1][3];
-        faces[1][3] = faces[2][5];
-        faces[2][5] = faces[3][5];
-        faces[3][5] = temp;
+    /**
+     * Replaces the moves before the history cursor with the shortest sequence that has
+     * the same effect (see SequenceOptimizer) and drops the redo moves. The state does
+     * not change. Returns how many moves were saved.
+     */
+    public int compactHistory() {
+        byte[] entries = history.toArray();
+        CompiledAlgorithm shortest = SequenceOptimizer.optimize(entries, entries.length);
+        byte[] out = new byte[shortest.length()];
+        for (int i = 0; i < out.length; i++) out[i] = (byte) shortest.entry(i);
+        history.load(out, out.length);
+        history.checkpoint(state);
+        return entries.length - out.length;
     }
 
-    private void uCW() {
-        rotateTip(0);
-        rotateCenter(0);
-        cycle3Edges(
-                0, 0,
-                1, 2,
-                2, 1
-        );
-
-        Color4 temp;
-
-        temp = faces[1][0];
-        faces[1][0] = faces[2][0];
-        faces[2][0] = faces[0][0];
-        faces[0][0] = temp;
-
-        temp = faces[1][6];
-        faces[1][6] = faces[2][6];
-        faces[2][6] = faces[0][6];
-        faces[0][6] = temp;
-
-        temp = faces[1][1];
-        faces[1][1] = faces[2][1];
-        faces[2][1] = faces[0][1];
-        faces[0][1] = temp;
-
-        temp = faces[1][2];
-        faces[1][2] =  faces[2][2];
-        faces[2][2] = faces[0][2];
-        faces[0][2] = temp;
+    public void clearHistory() {
+        history.clear();
     }
 
-    private void uTip(){
-        Color4 temp;
-
-        temp = faces[1][0];
-        faces[1][0] = faces[2][0];
-        faces[2][0] = faces[0][0];
-        faces[0][0] = temp;
+    public boolean tipsSolved() {
+        return (state & PackedState.TIP_MASK) == 0;
     }
 
-    private void bCW() {
-        rotateTip(3);
-        rotateCenter(3);
-        cycle3Edges(
-                0, 0,
-                1, 2,
-                2, 1
-        );
-        Color4 temp;
-
-        temp = faces[0][3];
-        faces[0][3] = faces[3][0];
-        faces[3][0] = faces[2][3];
-        faces[2][3] = temp;
-
-        temp = faces[0][7];
-        faces[0][7] = faces[3][6];
-        faces[3][6] = faces[2][7];
-        faces[2][7] = temp;
-
-        temp = faces[0][1];
-        faces[0][1] = faces[3][1];
-        faces[3][1] = faces[2][4];
-        faces[2][4] = temp;
-
-        temp = faces[0][4];
-        faces[0][4] = faces[3][2];
-        faces[3][2] = faces[2][1];
-        faces[2][1] = temp;
+    public boolean centersSolved() {
+        return (state & PackedState.CENTER_MASK) == 0;
     }
 
-    private void bTip(){
-        Color4 temp;
-
-        temp = faces[0][3];
-        faces[0][3] = faces[3][0];
-        faces[3][0] = faces[2][3];
-        faces[2][3] = temp;
+    public boolean firstLayerEdgesSolved() {
+        return (state & 0xFFF) == (PackedState.SOLVED & 0xFFF);
     }
 
-    private void cycle3Edges(int fA, int sA, int fB, int sB, int fC, int sC) {
-        int idA = faceEdgeId[fA][sA];
-        int idB = faceEdgeId[fB][sB];
-        int idC = faceEdgeId[fC][sC];
-
-        // A -> B
-        faceEdgeId[fB][sB] = idA;
-
-        // B -> C
-        faceEdgeId[fC][sC] = idB;
-
-        // C -> A
-        faceEdgeId[fA][sA] = idC;
+    public boolean isSolved() {
+        return PackedState.isSolved(state);
+    }
+
+    /**
+     * Fewest moves that solve the puzzle: the layer distance read from the shared
+     * DistanceTable plus one tip turn per tip left twisted once the layers are solved.
+     * A layer move turns a corner's tip and center together, so that is every tip whose
+     * orientation differs from its center's. The first call maps the table.
+     */
+    public int distanceToSolved() {
+        int twisted = 0;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            if (PackedState.tipOri(state, c) != PackedState.centerOri(state, c)) twisted++;
+        }
+        return DistanceTable.shared().distance(state) + twisted;
     }
 
     public void solveTips() {
-        Arrays.fill(tipOri, 0);
+        for (Move m : Solver.solveTips(state)) apply(m, true);
     }
 
+    // Turns each twisted corner's layer back; recorded like any other move
     public void solveCenters() {
-        Arrays.fill(centerOri, 0);
-    }
-
-    public void solveEdges() {
-        if (faceEdgeOri[0][0] == 1 || faceEdgeOri[0][1] == 1 || faceEdgeOri[0][2] == 1) {
-            apply("R U R'");
-        }
-
-        if (!firstLayerEdgesSolved()) {
-            apply("U' L' U L");
-        }
-
-        if (!firstLayerEdgesSolved()) {
-            apply("U R U' R'");
-        }
-
-        if (!firstLayerEdgesSolved()) {
-            apply("U' L' U L");
-        }
-
-        if (!firstLayerEdgesSolved()) {
-            apply("U R U' R'");
-        }
-
-        if (!firstLayerEdgesSolved()) {
-            faceEdgeId[0][0] = 0; faceEdgeOri[0][0] = 0;
-            faceEdgeId[0][1] = 1; faceEdgeOri[0][1] = 0;
-            faceEdgeId[0][2] = 2; faceEdgeOri[0][2] = 0;
-        }
+        for (Move m : Solver.solveCenters(state)) apply(m);
     }
 
-    public void solveSecondLayer() {
-        clockwiseCycle();
-        if (isSolved()) return;
-        antiClockwiseCycle();
-        if (isSolved()) return;
-        rightBlocks();
-        if (isSolved()) return;
-        leftBlocks();
-        if (isSolved()) return;
-        flipCase();
+    // Applies a shortest layer solution, then turns the tips
+    public void solve() {
+        for (Move m : new Solver().solve(state)) apply(m);
+        solveTips();
     }
 
     public void clockwiseCycle() {
-        apply("R' U' R U' R' U' R");
+        apply(CLOCKWISE_CYCLE);
     }
 
     public void antiClockwiseCycle() {
-        apply("L U L' U L U L'");
+        apply(ANTI_CLOCKWISE_CYCLE);
     }
 
     public void rightBlocks() {
-        apply("L R U R' U' L'");
+        apply(RIGHT_BLOCKS);
     }
 
     public void leftBlocks() {
-        apply("L U R U' R' L");
+        apply(LEFT_BLOCKS);
     }
 
     public void flipCase() {
-        apply("R' L R L' U L' U' L");
+        apply(FLIP_CASE);
     }
 
     public String faceSummary(int face) {
         return "Face " + face + " (" + FACE_COLOR[face].shortName() + ") " +
-                "[tip=" + tipOri[face] + ", ctr=" + centerOri[face] + "] " +
-                "edges=" + Arrays.toString(faceEdgeId[face]);
+                "[tip=" + getTipOri(face) + ", ctr=" + getCenterOri(face) + "] " +
+                "edges=" + Arrays.toString(new int[] {
+                        PackedState.edgeAt(state, FACE_EDGES[face][0]),
+                        PackedState.edgeAt(state, FACE_EDGES[face][1]),
+                        PackedState.edgeAt(state, FACE_EDGES[face][2])
+                });
     }
 
     public String status() {
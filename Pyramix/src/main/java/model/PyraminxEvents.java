@@ -0,0 +1,100 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events for the puzzle engine, so its latency shows up next to GC
+ * and safepoint activity in a recording. All are enabled by default once a recording
+ * runs (e.g. -XX:StartFlightRecording). Call sites follow the usual pattern: create,
+ * begin(), do the work, and only fill in fields and commit() when shouldCommit() is true.
+ * With no recording running begin/commit are no-ops and the event does not escape, so
+ * the JIT drops the allocation as well.
+ */
+public final class PyraminxEvents {
+    private PyraminxEvents() {}
+
+    @Name("pyraminx.ApplySequence")
+    @Label("Apply Sequence")
+    @Category("Pyraminx")
+    @Description("Move sequence parsed (or taken from the cache) and applied to a puzzle")
+    public static final class ApplySequence extends Event {
+        @Label("Characters")
+        public int characters;
+
+        @Label("Moves")
+        @Description("Moves applied after merging and cancelling")
+        public int moves;
+    }
+
+    @Name("pyraminx.Solve")
+    @Label("Solve")
+    @Category("Pyraminx")
+    @Description("Optimal IDA* search of one state")
+    public static final class Solve extends Event {
+        @Label("Depth")
+        @Description("Layer moves in the solution")
+        public int depth;
+
+        @Label("Nodes")
+        @Description("Nodes expanded")
+        public long nodes;
+
+        @Label("Table Hits")
+        @Description("Nodes cut off by the pruning tables")
+        public long tableHits;
+    }
+
+    @Name("pyraminx.Save")
+    @Label("Save")
+    @Category("Pyraminx")
+    public static final class Save extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Format")
+        public String format;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("History Length")
+        public int historyLength;
+    }
+
+    @Name("pyraminx.Load")
+    @Label("Load")
+    @Category("Pyraminx")
+    public static final class Load extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("History Length")
+        public int historyLength;
+    }
+
+    @Name("pyraminx.Redraw")
+    @Label("Redraw")
+    @Category("Pyraminx")
+    @Description("Canvas update in PyraminxView")
+    public static final class Redraw extends Event {
+        @Label("Width")
+        public double width;
+
+        @Label("Height")
+        public double height;
+
+        @Label("Stickers")
+        @Description("Stickers repainted, 36 for a full redraw")
+        public int stickers;
+    }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Immutable Pyraminx position for use as a map or set key. It wraps the packed state
+ * (see PackedState), so equals is a single long compare, and carries a 64-bit Zobrist hash:
+ * the XOR of one random key per (edge slot, piece in it) and per (corner, orientation).
+ * A move only touches three edge slots, one center and one tip, so apply updates the hash
+ * by XOR-ing out the old keys of those pieces and XOR-ing in the new ones.
+ * Not a record: the hash must always match the state, which a public canonical
+ * constructor could not guarantee.
+ */
+public final class PyraminxState {
+    // Keys are fixed so hashes are stable across runs
+    private static final long[] EDGE_KEYS = new long[PackedState.EDGE_COUNT * 16];
+    private static final long[] CENTER_KEYS = new long[PackedState.CORNER_COUNT * 4];
+    private static final long[] TIP_KEYS = new long[PackedState.CORNER_COUNT * 4];
+    // Per move: the three edge slots it rewrites and the corner it twists
+    private static final int[] MOVE_SLOTS = new int[PackedState.MOVE_COUNT * 3];
+    private static final int[] MOVE_CORNER = new int[PackedState.MOVE_COUNT];
+
+    static {
+        SplittableRandom rng = new SplittableRandom(0x5059524DL);
+        for (int i = 0; i < EDGE_KEYS.length; i++) EDGE_KEYS[i] = rng.nextLong();
+        for (int i = 0; i < CENTER_KEYS.length; i++) CENTER_KEYS[i] = rng.nextLong();
+        for (int i = 0; i < TIP_KEYS.length; i++) TIP_KEYS[i] = rng.nextLong();
+
+        for (int m = 0; m < PackedState.MOVE_COUNT; m++) {
+            // From solved every cycled slot receives a different edge and only one tip turns
+            long s = PackedState.apply(PackedState.SOLVED, m);
+            int k = 0;
+            for (int slot = 0; slot < PackedState.EDGE_COUNT; slot++) {
+                if (PackedState.edgeAt(s, slot) != slot) MOVE_SLOTS[m * 3 + k++] = slot;
+            }
+            for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+                if (PackedState.tipOri(s, c) != 0) MOVE_CORNER[m] = c;
+            }
+        }
+    }
+
+    public static final PyraminxState SOLVED = of(PackedState.SOLVED);
+
+    private final long packed;
+    private final long hash;
+
+    private PyraminxState(long packed, long hash) {
+        this.packed = packed;
+        this.hash = hash;
+    }
+
+    public static PyraminxState of(long packed) {
+        return new PyraminxState(packed, zobrist(packed));
+    }
+
+    /** Full Zobrist hash of a packed state; apply keeps it up to date without calling this. */
+    public static long zobrist(long packed) {
+        long h = 0;
+        for (int slot = 0; slot < PackedState.EDGE_COUNT; slot++) {
+            h ^= EDGE_KEYS[(slot << 4) | nibble(packed, slot)];
+        }
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            h ^= CENTER_KEYS[(c << 2) | PackedState.centerOri(packed, c)];
+            h ^= TIP_KEYS[(c << 2) | PackedState.tipOri(packed, c)];
+        }
+        return h;
+    }
+
+    public PyraminxState apply(Move m) {
+        return apply(m.ordinal());
+    }
+
+    /** State after the layer move with the given Move ordinal. */
+    public PyraminxState apply(int move) {
+        long next = PackedState.apply(packed, move);
+        long h = hash;
+        for (int k = 0; k < 3; k++) {
+            int slot = MOVE_SLOTS[move * 3 + k];
+            h ^= EDGE_KEYS[(slot << 4) | nibble(packed, slot)] ^ EDGE_KEYS[(slot << 4) | nibble(next, slot)];
+        }
+        int c = MOVE_CORNER[move];
+        h ^= CENTER_KEYS[(c << 2) | PackedState.centerOri(packed, c)]
+                ^ CENTER_KEYS[(c << 2) | PackedState.centerOri(next, c)];
+        h = twistTip(h, next, c);
+        return new PyraminxState(next, h);
+    }
+
+    public PyraminxState applyTip(Move m) {
+        return applyTip(m.ordinal());
+    }
+
+    /** State after the tip-only move with the given Move ordinal. */
+    public PyraminxState applyTip(int move) {
+        long next = PackedState.applyTip(packed, move);
+        return new PyraminxState(next, twistTip(hash, next, MOVE_CORNER[move]));
+    }
+
+    /** State after a compiled algorithm; the hash is recomputed since any piece may move. */
+    public PyraminxState apply(CompiledAlgorithm algorithm) {
+        return of(algorithm.applyTo(packed));
+    }
+
+    private long twistTip(long h, long next, int c) {
+        return h ^ TIP_KEYS[(c << 2) | PackedState.tipOri(packed, c)]
+                ^ TIP_KEYS[(c << 2) | PackedState.tipOri(next, c)];
+    }
+
+    private static int nibble(long s, int slot) {
+        return (int) (s >>> (slot << 2)) & 0xF;
+    }
+
+    public long packed() {
+        return packed;
+    }
+
+    /** The full 64-bit Zobrist hash. */
+    public long hash() {
+        return hash;
+    }
+
+    public boolean isSolved() {
+        return PackedState.isSolved(packed);
+    }
+
+    public Color4 sticker(int face, int index) {
+        return PackedState.sticker(packed, face, index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PyraminxState other && packed == other.packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PyraminxState[%010x]", packed);
+    }
+}
@@ -0,0 +1,9 @@
+package model;
+
+/** File formats Pyraminx.saveToFile can write; loadFromFile detects either one. */
+public enum SaveFormat {
+    /** Human readable JSON with stickers, orientations, edge slots and history. */
+    JSON,
+    /** Versioned binary snapshot: the packed state plus 4 bits per history entry (see BinarySave). */
+    BINARY
+}
@@ -0,0 +1,283 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Single-pass reader for the JSON save format written by Pyraminx.saveToFile.
+ * Bytes are tokenized straight out of a fixed buffer into the primitive arrays below:
+ * keys and move names are matched in place, numbers are accumulated digit by digit and
+ * the history is kept as MoveHistory entries, so no strings or regexes are involved.
+ * History moves are read in MoveHistory.notation (R', r for tip-only) or as Move enum
+ * names (R_PRIME), which older saves used and which are always full-layer moves.
+ * Faces are read as face indices, which define the state when all 36 are there; fields it
+ * does not need (edgeOri, unknown keys) are skipped.
+ */
+final class SaveReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int TOKEN_SIZE = 16;
+
+    final int[] tipOri = new int[4];
+    final int[] centerOri = new int[4];
+    // faceEdgeId / faceEdgeOri flattened as face * 3 + i
+    final int[] faceEdgeId = new int[12];
+    final int[] faceEdgeOri = new int[12];
+    // Sticker colours as face indices (face * 9 + index); faceCount counts the known ones
+    final int[] faces = new int[StateValidator.STICKER_COUNT];
+    int faceCount;
+    byte[] history = new byte[64];
+    int historyLength;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final char[] token = new char[TOKEN_SIZE];
+    private int tokenLength;
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private SaveReader(InputStream in) {
+        this.in = in;
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 3; i++) faceEdgeId[f * 3 + i] = Pyraminx.FACE_EDGES[f][i];
+        }
+    }
+
+    static SaveReader read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            SaveReader reader = new SaveReader(in);
+            reader.parseObject();
+            return reader;
+        }
+    }
+
+    private void parseObject() throws IOException {
+        expect('{');
+        if (peekNonSpace() == '}') {
+            next();
+            return;
+        }
+        while (true) {
+            readString();
+            expect(':');
+            if (tokenIs("faces")) readFaces();
+            else if (tokenIs("tipOri")) readInts(tipOri);
+            else if (tokenIs("centerOri")) readInts(centerOri);
+            else if (tokenIs("faceEdgeId")) readInts(faceEdgeId);
+            else if (tokenIs("faceEdgeOri")) readInts(faceEdgeOri);
+            else if (tokenIs("history")) readHistory();
+            else skipValue();
+
+            int c = nextNonSpace();
+            if (c == '}') return;
+            if (c != ',') throw error("',' or '}'");
+        }
+    }
+
+    // Reads the numbers of a (possibly nested) array in order into dst; extras are ignored
+    private void readInts(int[] dst) throws IOException {
+        expect('[');
+        int count = 0;
+        int depth = 1;
+        while (depth > 0) {
+            int c = nextNonSpace();
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                int v = readInt(c);
+                if (count < dst.length) dst[count] = v;
+                count++;
+            } else if (c != ',') {
+                throw error("number");
+            }
+        }
+    }
+
+    // Reads colour names in order into faces; unknown names and extras are not counted
+    private void readFaces() throws IOException {
+        expect('[');
+        faceCount = 0;
+        int count = 0;
+        int depth = 1;
+        while (depth > 0) {
+            int c = nextNonSpace();
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == '"') {
+                readStringBody();
+                int face = faceIndex();
+                if (face >= 0 && count < faces.length) {
+                    faces[count] = face;
+                    faceCount++;
+                }
+                count++;
+            } else if (c != ',') {
+                throw error("colour name");
+            }
+        }
+    }
+
+    // Face whose colour is named in the token, -1 if it is not a colour
+    private int faceIndex() {
+        for (int f = 0; f < Pyraminx.FACE_COLOR.length; f++) {
+            if (tokenIs(Pyraminx.FACE_COLOR[f].name())) return f;
+        }
+        return -1;
+    }
+
+    private int readInt(int first) throws IOException {
+        boolean negative = first == '-';
+        int v = negative ? 0 : first - '0';
+        int c;
+        while ((c = peek()) >= '0' && c <= '9') {
+            next();
+            v = v * 10 + (c - '0');
+        }
+        return negative ? -v : v;
+    }
+
+    private void readHistory() throws IOException {
+        historyLength = 0;
+        expect('[');
+        if (peekNonSpace() == ']') {
+            next();
+            return;
+        }
+        while (true) {
+            readString();
+            int entry = historyEntry();
+            if (entry < 0) {
+                throw new IOException("Unknown move in history: " + new String(token, 0, Math.min(tokenLength, TOKEN_SIZE)));
+            }
+            if (historyLength == history.length) {
+                history = Arrays.copyOf(history, history.length << 1);
+            }
+            history[historyLength++] = (byte) entry;
+
+            int c = nextNonSpace();
+            if (c == ']') return;
+            if (c != ',') throw error("',' or ']'");
+        }
+    }
+
+    // History entry of the token: R, R', r, r' or an enum name such as R_PRIME; -1 if none
+    private int historyEntry() {
+        boolean prime = tokenLength == 2 && token[1] == '\''
+                || tokenLength == 7 && Character.isUpperCase(token[0]) && tokenIs(1, "_PRIME");
+        if (tokenLength != 1 && !prime) return -1;
+        int axis = switch (Character.toUpperCase(token[0])) {
+            case 'R' -> 0;
+            case 'L' -> 1;
+            case 'U' -> 2;
+            case 'B' -> 3;
+            default -> -1;
+        };
+        if (axis < 0) return -1;
+        return axis * 2 + (prime ? 1 : 0) + (Character.isLowerCase(token[0]) ? MoveHistory.TIP_ONLY : 0);
+    }
+
+    // Reads a quoted string into token; longer strings are truncated (they match no key)
+    private void readString() throws IOException {
+        expect('"');
+        readStringBody();
+    }
+
+    private void readStringBody() throws IOException {
+        tokenLength = 0;
+        int c;
+        while ((c = next()) != '"') {
+            if (c < 0) throw error("'\"'");
+            if (c == '\\') c = next();
+            if (tokenLength < TOKEN_SIZE) token[tokenLength] = (char) c;
+            tokenLength++;
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = nextNonSpace();
+        if (c == '"') {
+            while ((c = next()) != '"') {
+                if (c < 0) throw error("'\"'");
+                if (c == '\\') next();
+            }
+        } else if (c == '[' || c == '{') {
+            int depth = 1;
+            while (depth > 0) {
+                c = next();
+                if (c < 0) throw error("']' or '}'");
+                if (c == '[' || c == '{') depth++;
+                else if (c == ']' || c == '}') depth--;
+                else if (c == '"') {
+                    while ((c = next()) != '"') {
+                        if (c < 0) throw error("'\"'");
+                        if (c == '\\') next();
+                    }
+                }
+            }
+        } else {
+            // number, true, false or null
+            while ((c = peek()) >= 0 && c != ',' && c != '}' && c != ']' && !isSpace(c)) next();
+        }
+    }
+
+    private boolean tokenIs(String name) {
+        return tokenLength == name.length() && tokenIs(0, name);
+    }
+
+    private boolean tokenIs(int from, String part) {
+        for (int i = 0; i < part.length(); i++) {
+            if (token[from + i] != part.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextNonSpace() != expected) throw error("'" + expected + "'");
+    }
+
+    private int nextNonSpace() throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (isSpace(c));
+        return c;
+    }
+
+    private int peekNonSpace() throws IOException {
+        int c;
+        while (isSpace(c = peek())) next();
+        return c;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int next() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = Math.max(in.read(buf), 0);
+        return limit > 0;
+    }
+
+    private IOException error(String expected) {
+        return new IOException("Malformed save file: expected " + expected + " at byte " + (consumed + pos - 1));
+    }
+}
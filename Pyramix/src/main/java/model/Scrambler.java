@@ -0,0 +1,68 @@
+package model;
+
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Random-state scrambler. Every combination of the coordinates in Coordinates is reachable,
+ * so drawing each one uniformly gives a uniformly random position, unlike a random walk of
+ * a few moves. A Scrambler owns a SplittableRandom and is meant for one thread: use
+ * current() for a per-thread instance, split() to hand a child to another thread, or the
+ * seeded constructor for a reproducible sequence.
+ */
+public final class Scrambler {
+    private static final ThreadLocal<Scrambler> CURRENT = ThreadLocal.withInitial(Scrambler::new);
+
+    private final SplittableRandom random;
+    private Solver solver;
+
+    /** A scrambled position: scramble turns a solved puzzle into state, solution undoes it. */
+    public record Scramble(long state, CompiledAlgorithm scramble, CompiledAlgorithm solution) {}
+
+    public Scrambler() {
+        this(new SplittableRandom());
+    }
+
+    public Scrambler(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private Scrambler(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /** This thread's scrambler. */
+    public static Scrambler current() {
+        return CURRENT.get();
+    }
+
+    /** An independent scrambler for use on another thread. */
+    public Scrambler split() {
+        return new Scrambler(random.split());
+    }
+
+    /** Uniformly random reachable state, tips included. */
+    public long nextState() {
+        return Coordinates.fromCoords(random.nextInt(Coordinates.PERM_COUNT), random.nextInt(Coordinates.ORI_COUNT),
+                random.nextInt(Coordinates.CENTER_COUNT), random.nextInt(Coordinates.TIP_COUNT));
+    }
+
+    /** Uniformly random state along with its optimal solution and the matching scramble. */
+    public Scramble next() {
+        long state = nextState();
+        if (solver == null) solver = new Solver();
+        CompiledAlgorithm solution = CompiledAlgorithm.fromPacked(solver.solvePacked(state));
+        return new Scramble(state, solution.inverse(), solution);
+    }
+
+    /** count scrambles generated in parallel, each thread drawing from its own generator. */
+    public static Stream<Scramble> stream(long count) {
+        return LongStream.range(0, count).parallel().mapToObj(i -> current().next());
+    }
+
+    /** count uniformly random states generated in parallel. */
+    public static LongStream states(long count) {
+        return LongStream.range(0, count).parallel().map(i -> current().nextState());
+    }
+}
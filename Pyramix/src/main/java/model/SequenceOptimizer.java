@@ -0,0 +1,44 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Shortens move sequences to the shortest sequence with the same effect.
+ * Every position is reached from solved by exactly one puzzle group element, so two
+ * sequences do the same thing from every start exactly when they do the same thing from
+ * solved. The shortest equivalent is therefore the inverse of an optimal solution of the
+ * state the sequence produces from solved. Solver gives that solution: optimal layer
+ * moves, then one tip-only turn per tip left twisted. Tip-only moves commute with
+ * everything and each tip's leftover twist is the same whichever optimal layer solution
+ * is taken, so the total is optimal as well. A solve takes a few microseconds and each
+ * thread keeps its own Solver, so this can run inline or over archives in parallel.
+ */
+public final class SequenceOptimizer {
+    private static final ThreadLocal<Solver> SOLVERS = ThreadLocal.withInitial(Solver::new);
+
+    private SequenceOptimizer() {}
+
+    /** The shortest algorithm equivalent to algorithm; algorithm itself when nothing is shorter. */
+    public static CompiledAlgorithm optimize(CompiledAlgorithm algorithm) {
+        // Two moves left after merging are already optimal: one move would have merged
+        if (algorithm.length() <= 2) return algorithm;
+        long state = algorithm.applyTo(PackedState.SOLVED);
+        CompiledAlgorithm shortest = CompiledAlgorithm.fromPacked(SOLVERS.get().solvePacked(state)).inverse();
+        return shortest.length() < algorithm.length() ? shortest : algorithm;
+    }
+
+    /** Optimizes a sequence in CompiledAlgorithm.compile notation. */
+    public static CompiledAlgorithm optimize(CharSequence sequence) {
+        return optimize(AlgorithmCache.shared().get(sequence));
+    }
+
+    /** Optimizes a list of layer moves. */
+    public static CompiledAlgorithm optimize(List<Move> moves) {
+        return optimize(CompiledAlgorithm.of(moves.toArray(new Move[0])));
+    }
+
+    /** Optimizes the first count MoveHistory entries, tip-only moves included. */
+    public static CompiledAlgorithm optimize(byte[] entries, int count) {
+        return optimize(CompiledAlgorithm.fromEntries(entries, count));
+    }
+}
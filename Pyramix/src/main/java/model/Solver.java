@@ -0,0 +1,186 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optimal Pyraminx solver: iterative-deepening A* over the coordinates in Coordinates,
+ * pruned with two exact BFS tables (edge permutation x edge flips, edge permutation x centers).
+ * Tips are not part of the search; solveTips returns the tip-only turns that finish them.
+ * The tables are shared and built on first use. A Solver instance keeps its own scratch
+ * path, so use one instance per thread.
+ */
+public final class Solver {
+    public static final int MAX_DEPTH = 12;
+    private static final int N_MOVES = Coordinates.MOVE_COUNT;
+    private static final Move[] MOVES = Move.values();
+    // Tip-only move that turns each corner (0:U, 1:R, 2:L, 3:B) clockwise
+    private static final Move[] CORNER_MOVES = {Move.U, Move.R, Move.L, Move.B};
+
+    private static final byte[] EDGE_PRUNE = TableBuilder.unpack(
+            Coordinates.permPairTable(Coordinates.ORI_COUNT, Coordinates.ORI_MOVE),
+            Coordinates.PERM_COUNT * Coordinates.ORI_COUNT);
+    private static final byte[] CENTER_PRUNE = TableBuilder.unpack(
+            Coordinates.permPairTable(Coordinates.CENTER_COUNT, Coordinates.CENTER_MOVE),
+            Coordinates.PERM_COUNT * Coordinates.CENTER_COUNT);
+
+    private final int[] path = new int[MAX_DEPTH];
+    private int length;
+    private long nodes;
+    private long pruned;
+
+    /** Shortest layer-move solution for the tip-less part of the state. */
+    public List<Move> solve(long state) {
+        long started = Metrics.start();
+        int n = search(state);
+        Metrics.count(Metrics.Counter.SOLVES);
+        Metrics.stop(Metrics.Timer.SOLVE, started);
+        List<Move> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(MOVES[path[i]]);
+        return out;
+    }
+
+    /** Optimal number of layer moves needed, ignoring tips. */
+    public int distance(long state) {
+        return search(state);
+    }
+
+    /** Nodes expanded by the last search. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Nodes of the last search cut off by the pruning tables. */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /**
+     * Full solution (layer moves, then tip-only turns) packed into one long without
+     * allocating: entry i sits in bits 4i..4i+3 as the Move ordinal with bit 3 set for a
+     * tip-only turn, and the entry count (at most 15) sits in the top 4 bits.
+     */
+    public long solvePacked(long state) {
+        long started = Metrics.start();
+        int n = search(state);
+        Metrics.count(Metrics.Counter.SOLVES);
+        Metrics.stop(Metrics.Timer.SOLVE, started);
+        long out = 0;
+        for (int i = 0; i < n; i++) {
+            out |= (long) path[i] << (i << 2);
+            state = PackedState.apply(state, path[i]);
+        }
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            int t = PackedState.tipOri(state, c);
+            if (t == 0) continue;
+            out |= (long) (tipMove(c, t) | 8) << (n << 2);
+            n++;
+        }
+        return out | ((long) n << 60);
+    }
+
+    public static int packedLength(long packed) {
+        return (int) (packed >>> 60);
+    }
+
+    public static Move packedMove(long packed, int i) {
+        return MOVES[(int) (packed >>> (i << 2)) & 7];
+    }
+
+    public static boolean packedTipOnly(long packed, int i) {
+        return ((packed >>> (i << 2)) & 8) != 0;
+    }
+
+    /** Packed solution in app notation: R U' for layer moves, r u' for tip-only turns. */
+    public static String format(long packed) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < packedLength(packed); i++) {
+            String token = packedMove(packed, i).toString().replace("_PRIME", "'");
+            if (i > 0) sb.append(' ');
+            sb.append(packedTipOnly(packed, i) ? token.toLowerCase() : token);
+        }
+        return sb.toString();
+    }
+
+    /** Tip-only turns (apply with tipOnly = true) that solve the tips of the given state. */
+    public static List<Move> solveTips(long state) {
+        List<Move> out = new ArrayList<>(4);
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            int t = PackedState.tipOri(state, c);
+            if (t != 0) out.add(MOVES[tipMove(c, t)]);
+        }
+        return out;
+    }
+
+    /**
+     * Layer turns (tipOnly = false) that bring every center back to orientation 0. Each
+     * turns one corner, so edges move and that corner's tip turns with its center.
+     */
+    public static List<Move> solveCenters(long state) {
+        List<Move> out = new ArrayList<>(4);
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            int t = PackedState.centerOri(state, c);
+            if (t != 0) out.add(MOVES[tipMove(c, t)]);
+        }
+        return out;
+    }
+
+    // Turn that brings a tip with orientation t back to 0 (a clockwise turn adds 1)
+    private static int tipMove(int corner, int t) {
+        return CORNER_MOVES[corner].ordinal() + (t == 1 ? 1 : 0);
+    }
+
+    private int search(long state) {
+        PyraminxEvents.Solve event = new PyraminxEvents.Solve();
+        event.begin();
+        int perm = Coordinates.perm(state);
+        int ori = Coordinates.ori(state);
+        int center = Coordinates.center(state);
+        nodes = 0;
+        pruned = 0;
+        for (int depth = heuristic(perm, ori, center); depth <= MAX_DEPTH; depth++) {
+            if (search(perm, ori, center, 0, depth, -1)) {
+                if (event.shouldCommit()) {
+                    event.depth = length;
+                    event.nodes = nodes;
+                    event.tableHits = pruned;
+                    event.commit();
+                }
+                return length;
+            }
+        }
+        throw new IllegalStateException("State is not solvable within " + MAX_DEPTH + " moves");
+    }
+
+    private static int heuristic(int perm, int ori, int center) {
+        int a = EDGE_PRUNE[perm * Coordinates.ORI_COUNT + ori];
+        int b = CENTER_PRUNE[perm * Coordinates.CENTER_COUNT + center];
+        return Math.max(a, b);
+    }
+
+    private boolean search(int perm, int ori, int center, int ply, int depth, int lastAxis) {
+        nodes++;
+        int h = heuristic(perm, ori, center);
+        if (h == 0) {
+            // Both tables are exact, so a zero estimate means solved
+            length = ply;
+            return true;
+        }
+        if (ply + h > depth) {
+            pruned++;
+            return false;
+        }
+        for (int m = 0; m < N_MOVES; m++) {
+            // Turning the same axis twice in a row is never shorter than one turn
+            if ((m >> 1) == lastAxis) continue;
+            path[ply] = m;
+            if (search(Coordinates.PERM_MOVE[perm * N_MOVES + m],
+                    Coordinates.ORI_MOVE[ori * N_MOVES + m],
+                    Coordinates.CENTER_MOVE[center * N_MOVES + m],
+                    ply + 1, depth, m >> 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
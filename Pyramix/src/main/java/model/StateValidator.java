@@ -0,0 +1,162 @@
+package model;
+
+/**
+ * Reachability checks for states that come from outside: save files, user-entered
+ * sticker layouts and batch inputs. A packed state is a reachable position exactly when
+ * its six edge ids form an even permutation, its edge flips sum to an even number and
+ * every orientation is 0..2 (every such combination is reachable, see Coordinates).
+ * Sticker layouts are turned into pieces through small lookup tables keyed by the colours
+ * on each piece, so every check is a fixed number of table reads and no search is run.
+ * Failures are reported as IllegalArgumentException with the reason.
+ */
+public final class StateValidator {
+    public static final int STICKER_COUNT = 36;
+
+    // Colours of a tip or center (c0 * 16 + c1 * 4 + c2) -> orientation + 1, 0 if none
+    private static final byte[][] TIP_ORI = new byte[PackedState.CORNER_COUNT][64];
+    private static final byte[][] CENTER_ORI = new byte[PackedState.CORNER_COUNT][64];
+    // Colours on facelets 0 and 1 of an edge slot (a * 4 + b) -> (id << 1 | flip) + 1, 0 if none
+    private static final byte[] EDGE_PIECE = new byte[16];
+    private static final int[] COLOUR_FACE = new int[Color4.values().length];
+
+    static {
+        for (int f = 0; f < 4; f++) COLOUR_FACE[Pyraminx.FACE_COLOR[f].ordinal()] = f;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            for (int o = 0; o < 3; o++) {
+                TIP_ORI[c][colourKey(PackedState.TIP_STICKERS[c], o)] = (byte) (o + 1);
+                CENTER_ORI[c][colourKey(PackedState.CENTER_STICKERS[c], o)] = (byte) (o + 1);
+            }
+        }
+        for (int e = 0; e < PackedState.EDGE_COUNT; e++) {
+            for (int flip = 0; flip < 2; flip++) {
+                int a = PackedState.EDGE_STICKERS[e][flip] / 9;
+                int b = PackedState.EDGE_STICKERS[e][flip ^ 1] / 9;
+                EDGE_PIECE[a * 4 + b] = (byte) ((e << 1 | flip) + 1);
+            }
+        }
+    }
+
+    private StateValidator() {}
+
+    // Colours a corner piece shows on its facelets when turned by o (as PackedState.stickerFace)
+    private static int colourKey(int[] stickers, int o) {
+        int key = 0;
+        for (int k = 0; k < 3; k++) key = key * 4 + stickers[(k - o + 3) % 3] / 9;
+        return key;
+    }
+
+    /** Why the packed state is not a reachable position, or null if it is one. */
+    public static String check(long s) {
+        if ((s & ~(PackedState.EDGE_MASK | PackedState.CENTER_MASK | PackedState.TIP_MASK)) != 0) {
+            return "Unused bits are set";
+        }
+        int seen = 0;
+        int flips = 0;
+        int parity = 0;
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            int e = PackedState.edgeAt(s, j);
+            if (e >= PackedState.EDGE_COUNT) return "Edge id " + e + " in slot " + j + " is out of range";
+            if ((seen & (1 << e)) != 0) return "Edge " + e + " appears twice";
+            // Pieces seen so far with a higher id are inversions
+            parity ^= Integer.bitCount(seen >> e);
+            seen |= 1 << e;
+            flips ^= PackedState.edgeOri(s, j);
+        }
+        if ((parity & 1) != 0) return "Edge permutation is odd";
+        if (flips != 0) return "Edge flips do not sum to an even number";
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            if (PackedState.centerOri(s, c) == 3) return "Center orientation of corner " + c + " is out of range";
+            if (PackedState.tipOri(s, c) == 3) return "Tip orientation of corner " + c + " is out of range";
+        }
+        return null;
+    }
+
+    public static boolean isValid(long s) {
+        return check(s) == null;
+    }
+
+    /** Returns s if it is reachable, otherwise throws with the reason. */
+    public static long requireValid(long s) {
+        String problem = check(s);
+        if (problem != null) throw new IllegalArgumentException(problem);
+        return s;
+    }
+
+    /**
+     * Packs piece arrays as PackedState.pack does, but rejects values out of range
+     * instead of masking them, and unreachable results.
+     */
+    public static long fromPieces(int[] tipOri, int[] centerOri, int[] slotEdge, int[] slotOri) {
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            if (tipOri[c] < 0 || tipOri[c] > 2) {
+                throw new IllegalArgumentException("Tip orientation " + tipOri[c] + " of corner " + c + " is out of range");
+            }
+            if (centerOri[c] < 0 || centerOri[c] > 2) {
+                throw new IllegalArgumentException("Center orientation " + centerOri[c] + " of corner " + c + " is out of range");
+            }
+        }
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            if (slotEdge[j] < 0 || slotEdge[j] >= PackedState.EDGE_COUNT) {
+                throw new IllegalArgumentException("Edge id " + slotEdge[j] + " in slot " + j + " is out of range");
+            }
+            if (slotOri[j] < 0 || slotOri[j] > 1) {
+                throw new IllegalArgumentException("Edge flip " + slotOri[j] + " in slot " + j + " is out of range");
+            }
+        }
+        return requireValid(PackedState.pack(tipOri, centerOri, slotEdge, slotOri));
+    }
+
+    /** Reads the state off a sticker layout given as colours, faces[face][index]. */
+    public static long fromStickers(Color4[][] faces) {
+        int[] stickerFaces = new int[STICKER_COUNT];
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 9; i++) {
+                stickerFaces[f * 9 + i] = COLOUR_FACE[faces[f][i].ordinal()];
+            }
+        }
+        return fromStickers(stickerFaces);
+    }
+
+    /**
+     * Reads the state off a sticker layout: stickerFaces[face * 9 + index] is the face
+     * (0..3, see Pyraminx.FACE_COLOR) whose colour shows there. Checks that each colour
+     * appears 9 times, that every tip, center and edge shows a colour set one of its
+     * pieces can show, and that the pieces form a reachable state.
+     */
+    public static long fromStickers(int[] stickerFaces) {
+        if (stickerFaces.length != STICKER_COUNT) {
+            throw new IllegalArgumentException("Expected " + STICKER_COUNT + " stickers, got " + stickerFaces.length);
+        }
+        int[] counts = new int[4];
+        for (int f : stickerFaces) {
+            if (f < 0 || f > 3) throw new IllegalArgumentException("Unknown sticker colour " + f);
+            counts[f]++;
+        }
+        for (int f = 0; f < 4; f++) {
+            if (counts[f] != 9) {
+                throw new IllegalArgumentException("Expected 9 " + Pyraminx.FACE_COLOR[f] + " stickers, found " + counts[f]);
+            }
+        }
+
+        long s = 0;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            int tip = TIP_ORI[c][key(stickerFaces, PackedState.TIP_STICKERS[c])] - 1;
+            if (tip < 0) throw new IllegalArgumentException("Tip of corner " + c + " shows colours it does not have");
+            int center = CENTER_ORI[c][key(stickerFaces, PackedState.CENTER_STICKERS[c])] - 1;
+            if (center < 0) throw new IllegalArgumentException("Center of corner " + c + " shows colours it does not have");
+            s |= (long) center << (PackedState.CENTER_SHIFT + (c << 1));
+            s |= (long) tip << (PackedState.TIP_SHIFT + (c << 1));
+        }
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            int[] facelets = PackedState.EDGE_STICKERS[j];
+            int piece = EDGE_PIECE[stickerFaces[facelets[0]] * 4 + stickerFaces[facelets[1]]] - 1;
+            if (piece < 0) throw new IllegalArgumentException("Edge slot " + j + " shows colours no edge has");
+            s |= (long) ((piece >> 1) | ((piece & 1) << 3)) << (j << 2);
+        }
+        return requireValid(s);
+    }
+
+    private static int key(int[] stickerFaces, int[] stickers) {
+        return stickerFaces[stickers[0]] * 16 + stickerFaces[stickers[1]] * 4 + stickerFaces[stickers[2]];
+    }
+}
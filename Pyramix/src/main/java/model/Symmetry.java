@@ -0,0 +1,204 @@
+package model;
+
+import java.util.Random;
+
+/**
+ * The 24 symmetries of the tetrahedron acting on packed states: 12 rotations and 12
+ * mirror images. Symmetry i relabels corners by an even (rotation) or odd (mirror)
+ * permutation; edge slots follow their two corners, and edge flips pick up a fixed
+ * per-slot correction. Applying a symmetry means conjugating: turning the puzzle, applying
+ * the state and turning it back, so apply(sym, s) is solved exactly when s is, and both
+ * are the same number of moves from solved.
+ * The move that plays the role of m after symmetry sym is conjugate(sym, m); mirror
+ * symmetries turn clockwise moves into prime ones. Symmetry 0 is the identity, 0..ROTATIONS-1 are
+ * the rotations.
+ */
+public final class Symmetry {
+    public static final int COUNT = 24;
+    public static final int ROTATIONS = 12;
+
+    // Move.U turns its corner the other way round from R, L and B, so the orientations
+    // at corner 0 count in the opposite direction to the rest
+    private static final int[] CORNER_HAND = {-1, 1, 1, 1};
+
+    // Two corners joined by each edge slot, from the faces each slot lies between
+    private static final int[][] SLOT_CORNERS = new int[PackedState.EDGE_COUNT][2];
+
+    private static final int[][] CORNER_MAP = new int[COUNT][PackedState.CORNER_COUNT];
+    private static final boolean[][] NEGATE = new boolean[COUNT][PackedState.CORNER_COUNT];
+    private static final int[][] SLOT_MAP = new int[COUNT][PackedState.EDGE_COUNT];
+    private static final int[] FLIP_FIX = new int[COUNT];
+    private static final int[] MOVE_CONJ = new int[COUNT * PackedState.MOVE_COUNT];
+    private static final int[] INVERSE = new int[COUNT];
+
+    static {
+        // A face holds three corners; the one it misses sits opposite it
+        int[] opposite = new int[4];
+        for (int f = 0; f < 4; f++) {
+            int on = 0;
+            for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+                for (int sticker : PackedState.TIP_STICKERS[c]) if (sticker / 9 == f) on |= 1 << c;
+            }
+            opposite[f] = Integer.numberOfTrailingZeros(~on & 0xF);
+        }
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            int faces = 1 << opposite[Pyraminx.EDGE_TO_FACES[j][0]] | 1 << opposite[Pyraminx.EDGE_TO_FACES[j][1]];
+            int corners = ~faces & 0xF;
+            SLOT_CORNERS[j][0] = Integer.numberOfTrailingZeros(corners);
+            SLOT_CORNERS[j][1] = 31 - Integer.numberOfLeadingZeros(corners);
+        }
+
+        // Rotations (even permutations) first, then mirror images, identity first of all
+        int[] axisCorner = new int[PackedState.CORNER_COUNT];
+        for (int axis = 0; axis < 4; axis++) {
+            long s = PackedState.apply(PackedState.SOLVED, axis * 2);
+            for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+                if (PackedState.tipOri(s, c) != 0) axisCorner[axis] = c;
+            }
+        }
+        long[] samples = sampleStates();
+        int n = 0;
+        for (int parity = 0; parity < 2; parity++) {
+            for (int code = 0; code < 256; code++) {
+                int[] perm = new int[4];
+                int used = 0;
+                for (int c = 0; c < 4; c++) {
+                    // Corner 0 in the high bits, so codes run in lexicographic order
+                    perm[c] = (code >> ((3 - c) << 1)) & 3;
+                    used |= 1 << perm[c];
+                }
+                if (used != 0xF || parity(perm) != parity) continue;
+                define(n++, perm, parity == 1, axisCorner, samples);
+            }
+        }
+        for (int a = 0; a < COUNT; a++) {
+            for (int b = 0; b < COUNT; b++) {
+                if (apply(b, apply(a, samples[0])) == samples[0] && apply(b, apply(a, samples[1])) == samples[1]) {
+                    INVERSE[a] = b;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {}
+
+    private static void define(int sym, int[] perm, boolean mirror, int[] axisCorner, long[] samples) {
+        CORNER_MAP[sym] = perm;
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            NEGATE[sym][c] = mirror ^ (CORNER_HAND[c] != CORNER_HAND[perm[c]]);
+        }
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            int a = perm[SLOT_CORNERS[j][0]];
+            int b = perm[SLOT_CORNERS[j][1]];
+            for (int k = 0; k < PackedState.EDGE_COUNT; k++) {
+                if ((SLOT_CORNERS[k][0] == Math.min(a, b)) && SLOT_CORNERS[k][1] == Math.max(a, b)) {
+                    SLOT_MAP[sym][j] = k;
+                }
+            }
+        }
+        // Move m turns into the move of the image corner, prime when the direction flips
+        for (int m = 0; m < PackedState.MOVE_COUNT; m++) {
+            int corner = axisCorner[m >> 1];
+            int axis = 0;
+            while (axisCorner[axis] != perm[corner]) axis++;
+            MOVE_CONJ[sym * PackedState.MOVE_COUNT + m] = axis * 2 + ((m & 1) ^ (NEGATE[sym][corner] ? 1 : 0));
+        }
+        // Which facelet of a slot lands on facelet 0 of its image depends on the slot
+        // numbering, so find the flip correction that makes every move commute
+        for (int fix = 0; fix < 1 << PackedState.EDGE_COUNT; fix++) {
+            FLIP_FIX[sym] = fix;
+            if (commutes(sym, samples)) return;
+        }
+        throw new IllegalStateException("No edge flip correction for symmetry " + sym);
+    }
+
+    private static boolean commutes(int sym, long[] samples) {
+        for (long s : samples) {
+            for (int m = 0; m < PackedState.MOVE_COUNT; m++) {
+                if (apply(sym, PackedState.apply(s, m)) != PackedState.apply(apply(sym, s), conjugate(sym, m))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long[] sampleStates() {
+        Random rng = new Random(15);
+        long[] out = new long[4];
+        for (int i = 0; i < out.length; i++) {
+            long s = PackedState.SOLVED;
+            for (int k = 0; k < 30; k++) {
+                s = PackedState.applyTip(PackedState.apply(s, rng.nextInt(8)), rng.nextInt(8));
+            }
+            out[i] = s;
+        }
+        return out;
+    }
+
+    private static int parity(int[] perm) {
+        int p = 0;
+        for (int i = 0; i < perm.length; i++) {
+            for (int j = i + 1; j < perm.length; j++) if (perm[i] > perm[j]) p ^= 1;
+        }
+        return p;
+    }
+
+    /** The state seen after applying symmetry sym: pieces, orientations and flips relabelled. */
+    public static long apply(int sym, long s) {
+        int[] slotMap = SLOT_MAP[sym];
+        int fix = FLIP_FIX[sym];
+        long out = 0;
+        for (int j = 0; j < PackedState.EDGE_COUNT; j++) {
+            int e = PackedState.edgeAt(s, j);
+            int flip = PackedState.edgeOri(s, j) ^ ((fix >> j) & 1) ^ ((fix >> e) & 1);
+            out |= (long) (slotMap[e] | (flip << 3)) << (slotMap[j] << 2);
+        }
+        int[] cornerMap = CORNER_MAP[sym];
+        boolean[] negate = NEGATE[sym];
+        for (int c = 0; c < PackedState.CORNER_COUNT; c++) {
+            int center = PackedState.centerOri(s, c);
+            int tip = PackedState.tipOri(s, c);
+            if (negate[c]) {
+                center = (3 - center) % 3;
+                tip = (3 - tip) % 3;
+            }
+            int shift = cornerMap[c] << 1;
+            out |= (long) center << (PackedState.CENTER_SHIFT + shift);
+            out |= (long) tip << (PackedState.TIP_SHIFT + shift);
+        }
+        return out;
+    }
+
+    /** The move m becomes under symmetry sym: apply(sym, apply(s, m)) == apply(apply(sym, s), conjugate(sym, m)). */
+    public static int conjugate(int sym, int move) {
+        return MOVE_CONJ[sym * PackedState.MOVE_COUNT + move];
+    }
+
+    public static int inverse(int sym) {
+        return INVERSE[sym];
+    }
+
+    public static boolean isMirror(int sym) {
+        return sym >= ROTATIONS;
+    }
+
+    /** Smallest packed value among the symmetric images of s: equal for equivalent states. */
+    public static long canonical(long s) {
+        return apply(canonicalSymmetry(s), s);
+    }
+
+    /** The symmetry that takes s to its canonical representative. */
+    public static int canonicalSymmetry(long s) {
+        int best = 0;
+        long min = s;
+        for (int sym = 1; sym < COUNT; sym++) {
+            long t = apply(sym, s);
+            if (t < min) {
+                min = t;
+                best = sym;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,131 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Symmetry-reduced distance tables. Positions whose edge permutations are symmetric images
+ * of each other are stored once: a position is first turned by the symmetry that brings its
+ * permutation to the representative of its class (see Symmetry), and indexed by that class
+ * and its remaining coordinates. Symmetric positions are the same distance from solved, so
+ * the table stays exact while the permutation axis shrinks from 360 entries to its classes.
+ * Three layouts match the full tables: every tip-less position (as DistanceTable), and the
+ * edge-flip and center pairs the solver prunes with.
+ */
+public final class SymmetryTable {
+    /** Coordinates stored next to the permutation class. */
+    public enum Kind {
+        STATE(Coordinates.ORI_COUNT * Coordinates.CENTER_COUNT),
+        EDGES(Coordinates.ORI_COUNT),
+        CENTERS(Coordinates.CENTER_COUNT);
+
+        final int otherCount;
+
+        Kind(int otherCount) {
+            this.otherCount = otherCount;
+        }
+
+        int other(long s) {
+            return switch (this) {
+                case STATE -> Coordinates.ori(s) * Coordinates.CENTER_COUNT + Coordinates.center(s);
+                case EDGES -> Coordinates.ori(s);
+                case CENTERS -> Coordinates.center(s);
+            };
+        }
+
+        long state(int perm, int other) {
+            return switch (this) {
+                case STATE -> Coordinates.fromCoords(perm, other / Coordinates.CENTER_COUNT,
+                        other % Coordinates.CENTER_COUNT, 0);
+                case EDGES -> Coordinates.fromCoords(perm, other, 0, 0);
+                case CENTERS -> Coordinates.fromCoords(perm, 0, other, 0);
+            };
+        }
+    }
+
+    // Permutation coordinate -> its class, the symmetry that reaches the class
+    // representative, and class -> representative permutation
+    private static final int[] PERM_CLASS = new int[Coordinates.PERM_COUNT];
+    private static final int[] PERM_SYM = new int[Coordinates.PERM_COUNT];
+    private static final int[] CLASS_REP;
+    // Non-identity symmetries that leave the representative permutation unchanged; they
+    // still move the other coordinates, so index takes the smallest result among them
+    private static final int[][] CLASS_STAB;
+    public static final int CLASS_COUNT;
+
+    static {
+        Arrays.fill(PERM_CLASS, -1);
+        int[] reps = new int[Coordinates.PERM_COUNT];
+        int[][] stabs = new int[Coordinates.PERM_COUNT][];
+        int classes = 0;
+        for (int p = 0; p < Coordinates.PERM_COUNT; p++) {
+            if (PERM_CLASS[p] >= 0) continue;
+            // p is the smallest of its class, so it becomes the representative
+            long s = Coordinates.fromCoords(p, 0, 0, 0);
+            int[] stab = new int[Symmetry.COUNT];
+            int fixing = 0;
+            for (int sym = 0; sym < Symmetry.COUNT; sym++) {
+                int q = Coordinates.perm(Symmetry.apply(sym, s));
+                if (PERM_CLASS[q] < 0) {
+                    PERM_CLASS[q] = classes;
+                    PERM_SYM[q] = Symmetry.inverse(sym);
+                }
+                if (q == p && sym != 0) stab[fixing++] = sym;
+            }
+            stabs[classes] = Arrays.copyOf(stab, fixing);
+            reps[classes++] = p;
+        }
+        CLASS_REP = Arrays.copyOf(reps, classes);
+        CLASS_STAB = Arrays.copyOf(stabs, classes);
+        CLASS_COUNT = classes;
+    }
+
+    private final Kind kind;
+    private final byte[] nibbles;
+
+    private SymmetryTable(Kind kind, byte[] nibbles) {
+        this.kind = kind;
+        this.nibbles = nibbles;
+    }
+
+    /** Builds the reduced table of the given layout with a breadth-first search. */
+    public static SymmetryTable build(Kind kind) {
+        int otherCount = kind.otherCount;
+        byte[] table = TableBuilder.build(CLASS_COUNT * otherCount, Coordinates.MOVE_COUNT, (i, m) -> {
+            long s = kind.state(CLASS_REP[i / otherCount], i % otherCount);
+            return index(kind, PackedState.apply(s, m));
+        });
+        return new SymmetryTable(kind, table);
+    }
+
+    private static int index(Kind kind, long s) {
+        int perm = Coordinates.perm(s);
+        int cls = PERM_CLASS[perm];
+        long rep = Symmetry.apply(PERM_SYM[perm], s);
+        int other = kind.other(rep);
+        for (int sym : CLASS_STAB[cls]) other = Math.min(other, kind.other(Symmetry.apply(sym, rep)));
+        return cls * kind.otherCount + other;
+    }
+
+    /**
+     * Exact distance from solved for STATE; for EDGES and CENTERS the distance of that
+     * coordinate pair alone, a lower bound as used for pruning.
+     */
+    public int distance(long state) {
+        int i = index(kind, state);
+        return (nibbles[i >> 1] >> ((i & 1) << 2)) & 0xF;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /** Number of entries, against Coordinates.PERM_COUNT * otherCount for the full table. */
+    public int size() {
+        return CLASS_COUNT * kind.otherCount;
+    }
+
+    /** Bytes of table data. */
+    public int bytes() {
+        return nibbles.length;
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Parallel breadth-first search that builds the distance and pruning tables.
+ * Distances are kept 8 per int as 4-bit entries (0xF = not reached yet) and claimed with
+ * compare-and-set, so no locks or visited sets are needed. Each depth scans the table in
+ * ranges split across a ForkJoinPool and expands every entry found at that depth.
+ * Run with -Dpyraminx.tableStats=true to print the count and time of every depth.
+ */
+public final class TableBuilder {
+    public static final boolean REPORT = Boolean.getBoolean("pyraminx.tableStats");
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int UNSEEN = 0xF;
+    private static final int CHUNK = 1 << 13;
+
+    private TableBuilder() {}
+
+    public static byte[] build(int size, int moveCount, IntBinaryOperator next) {
+        return build(size, moveCount, next, ForkJoinPool.commonPool(), REPORT);
+    }
+
+    /**
+     * Returns the distance from index 0 of every index below size, packed two per byte
+     * (low nibble = even index). next maps (index, move) to the neighbouring index.
+     */
+    public static byte[] build(int size, int moveCount, IntBinaryOperator next,
+                               ForkJoinPool pool, boolean report) {
+        int[] words = new int[(size + 7) >> 3];
+        Arrays.fill(words, -1);
+        words[0] &= ~UNSEEN;
+        int filled = 1;
+        long start = System.nanoTime();
+        if (report) System.out.printf("Table of %d entries on %d threads%n", size, pool.getParallelism());
+        for (int depth = 0; filled < size; depth++) {
+            long t = System.nanoTime();
+            int added = pool.invoke(new Expand(words, next, moveCount, depth, 0, size));
+            if (added == 0) break;
+            filled += added;
+            if (report) {
+                System.out.printf("  depth %2d: %,10d positions  %7.2f ms%n",
+                        depth + 1, added, (System.nanoTime() - t) / 1e6);
+            }
+        }
+        if (report) System.out.printf("  total %,d positions in %.2f ms%n", filled, (System.nanoTime() - start) / 1e6);
+
+        byte[] out = new byte[(size + 1) >> 1];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) (words[i >> 2] >>> ((i & 3) << 3));
+        }
+        return out;
+    }
+
+    /** Expands a nibble-packed table to one byte per entry for hot lookup paths. */
+    public static byte[] unpack(byte[] nibbles, int size) {
+        byte[] out = new byte[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = (byte) ((nibbles[i >> 1] >> ((i & 1) << 2)) & 0xF);
+        }
+        return out;
+    }
+
+    // Sets index to value if it is still unseen; true when this call claimed it
+    private static boolean claim(int[] words, int index, int value) {
+        int w = index >> 3;
+        int shift = (index & 7) << 2;
+        int cur = (int) WORDS.getVolatile(words, w);
+        while (((cur >>> shift) & 0xF) == UNSEEN) {
+            int update = (cur & ~(0xF << shift)) | (value << shift);
+            int witness = (int) WORDS.compareAndExchange(words, w, cur, update);
+            if (witness == cur) return true;
+            cur = witness;
+        }
+        return false;
+    }
+
+    private static final class Expand extends RecursiveTask<Integer> {
+        private final int[] words;
+        private final IntBinaryOperator next;
+        private final int moveCount;
+        private final int depth;
+        private final int lo;
+        private final int hi;
+
+        Expand(int[] words, IntBinaryOperator next, int moveCount, int depth, int lo, int hi) {
+            this.words = words;
+            this.next = next;
+            this.moveCount = moveCount;
+            this.depth = depth;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo > CHUNK) {
+                // Split on a word boundary so neighbouring tasks scan disjoint words
+                int mid = ((lo + hi) >>> 1) & ~7;
+                Expand left = new Expand(words, next, moveCount, depth, lo, mid);
+                left.fork();
+                int right = new Expand(words, next, moveCount, depth, mid, hi).compute();
+                return right + left.join();
+            }
+            int added = 0;
+            for (int i = lo; i < hi; i++) {
+                // Entries at this depth were all written in the previous pass
+                if (((words[i >> 3] >>> ((i & 7) << 2)) & 0xF) != depth) continue;
+                for (int m = 0; m < moveCount; m++) {
+                    if (claim(words, next.applyAsInt(i, m), depth + 1)) added++;
+                }
+            }
+            return added;
+        }
+    }
+}
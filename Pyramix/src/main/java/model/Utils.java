@@ -1,13 +1,12 @@
 package model;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public final class Utils {
-    private static final Random RNG = new Random();
-
     private Utils(){}
 
     public static int rnd(int n){
-        return RNG.nextInt(n);
+        // Per-thread generator, so concurrent callers never contend on a shared seed
+        return ThreadLocalRandom.current().nextInt(n);
     }
 }
@@ -0,0 +1,275 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.DistanceTable;
+import model.PackedState;
+import model.Pyraminx;
+import model.Solver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Headless HTTP service for the engine: one Pyraminx per session and no JavaFX classes.
+ * Runs on the JDK HttpServer with a virtual thread per request, so a request waiting on
+ * a busy session parks cheaply instead of holding a platform thread. Endpoints:
+ *   POST   /sessions             new solved session, or ?scramble=N random moves
+ *   GET    /sessions/{id}        state of the session
+ *   DELETE /sessions/{id}        closes the session
+ *   POST   /sessions/{id}/apply  body is a move sequence such as "R U' l" (see Pyraminx.apply)
+ *   POST   /sessions/{id}/undo   and /redo, one move
+ *   GET    /sessions/{id}/solve  optimal solution of the current state, not applied
+ * State responses are {"id", "state" (packed, hex), "moves", "redo", "solved", "distance"
+ * (fewest moves to solve, from the memory-mapped DistanceTable)}; solve
+ * answers {"id", "length", "solution"}. Errors have an {"error"} body: 400 (bad sequence
+ * or parameter), 404 (unknown session or path), 405 (wrong method), 413 (body too long),
+ * 503 (session limit reached) and 500 for anything unexpected, which is also logged.
+ * Sessions live in a SessionStore with per-session locking and are dropped after
+ * idleTimeout without requests.
+ */
+public final class PuzzleServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_HISTORY_LIMIT = 10_000;
+    public static final int DEFAULT_MAX_SESSIONS = 1_000_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    public static final int MAX_SCRAMBLE = 1000;
+    static final int MAX_BODY = 1 << 16;
+    private static final String PREFIX = "/sessions";
+    private static final System.Logger LOG = System.getLogger(PuzzleServer.class.getName());
+
+    static {
+        // Responses go out as two writes (headers, body); with Nagle on, a keep-alive client
+        // that delays its ACK stalls every request after the first by about 40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final SessionStore sessions;
+    private final ScheduledExecutorService evictor;
+    private final long sweepNanos;
+
+    public PuzzleServer(InetSocketAddress address, int historyLimit) throws IOException {
+        this(address, historyLimit, DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public PuzzleServer(InetSocketAddress address, int historyLimit, int maxSessions, Duration idleTimeout)
+            throws IOException {
+        if (historyLimit <= 0) throw new IllegalArgumentException("History limit must be positive: " + historyLimit);
+        sessions = new SessionStore(historyLimit, maxSessions, idleTimeout.toNanos());
+        // Sweep a few times per timeout, so a session lives at most about 1.25 timeouts idle
+        sweepNanos = Math.max(idleTimeout.toNanos() / 4, 1_000_000);
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        http = HttpServer.create(address, 1024);
+        http.setExecutor(executor);
+        http.createContext(PREFIX, this::handle);
+    }
+
+    public void start() {
+        // Map the distance table now rather than on the first request
+        DistanceTable.shared();
+        evictor.scheduleWithFixedDelay(sessions::evictIdle, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+        http.start();
+    }
+
+    /** Stops accepting requests, waits up to delaySeconds for running ones, then closes. */
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        executor.close();
+        evictor.shutdownNow();
+    }
+
+    /** Bound port, useful after binding to port 0. */
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            try {
+                route(ex);
+            } catch (HttpError e) {
+                send(ex, e.status, "{\"error\":" + quote(e.getMessage()) + "}");
+            } catch (IllegalArgumentException e) {
+                send(ex, 400, "{\"error\":" + quote(e.getMessage()) + "}");
+            } catch (SessionStore.FullException e) {
+                send(ex, 503, "{\"error\":" + quote(e.getMessage()) + "}");
+            } catch (RuntimeException e) {
+                LOG.log(System.Logger.Level.ERROR, "Failed " + ex.getRequestMethod() + " " + ex.getRequestURI(), e);
+                send(ex, 500, "{\"error\":\"Internal error\"}");
+            }
+        }
+    }
+
+    private void route(HttpExchange ex) throws IOException {
+        String method = ex.getRequestMethod();
+        // /sessions, /sessions/{id} or /sessions/{id}/{action}
+        String path = ex.getRequestURI().getPath();
+        String rest = path.length() > PREFIX.length() + 1 ? path.substring(PREFIX.length() + 1) : "";
+        if (!path.equals(PREFIX) && !path.equals(PREFIX + "/") && !path.startsWith(PREFIX + "/")) {
+            throw new HttpError(404, "Not found: " + path);
+        }
+        if (rest.isEmpty()) {
+            expect(method, "POST");
+            create(ex);
+            return;
+        }
+        int slash = rest.indexOf('/');
+        String id = slash < 0 ? rest : rest.substring(0, slash);
+        String action = slash < 0 ? "" : rest.substring(slash + 1);
+
+        switch (action) {
+            case "" -> {
+                if (method.equals("DELETE")) {
+                    if (!sessions.remove(id)) throw noSession(id);
+                    send(ex, 204, "");
+                } else {
+                    expect(method, "GET");
+                    send(ex, 200, use(id, cube -> stateJson(id, cube)));
+                }
+            }
+            case "apply" -> {
+                expect(method, "POST");
+                String sequence = readBody(ex);
+                send(ex, 200, use(id, cube -> {
+                    cube.apply(sequence);
+                    return stateJson(id, cube);
+                }));
+            }
+            case "undo", "redo" -> {
+                expect(method, "POST");
+                boolean undo = action.equals("undo");
+                send(ex, 200, use(id, cube -> {
+                    if (undo) cube.undo();
+                    else cube.redo();
+                    return stateJson(id, cube);
+                }));
+            }
+            case "solve" -> {
+                expect(method, "GET");
+                long state = use(id, Pyraminx::getState);
+                // Search outside the lock; a Solver is cheap and single-threaded
+                long packed = new Solver().solvePacked(state);
+                send(ex, 200, "{\"id\":" + quote(id) + ",\"length\":" + Solver.packedLength(packed)
+                        + ",\"solution\":" + quote(Solver.format(packed)) + "}");
+            }
+            default -> throw new HttpError(404, "Not found: " + path);
+        }
+    }
+
+    private void create(HttpExchange ex) throws IOException {
+        int scramble = queryInt(ex.getRequestURI(), "scramble", 0);
+        if (scramble < 0 || scramble > MAX_SCRAMBLE) {
+            throw new IllegalArgumentException("scramble must be 0.." + MAX_SCRAMBLE + ": " + scramble);
+        }
+        String id = sessions.create();
+        send(ex, 201, use(id, cube -> {
+            if (scramble > 0) {
+                cube.scramble(scramble);
+                cube.clearHistory();
+            }
+            return stateJson(id, cube);
+        }));
+    }
+
+    // Runs action under the session's lock; 404 if the session is gone
+    private <T> T use(String id, Function<Pyraminx, T> action) {
+        T result = sessions.withSession(id, action);
+        if (result == null) throw noSession(id);
+        return result;
+    }
+
+    private static HttpError noSession(String id) {
+        return new HttpError(404, "No session " + id);
+    }
+
+    private static String stateJson(String id, Pyraminx cube) {
+        long state = cube.getState();
+        return "{\"id\":" + quote(id) + ",\"state\":\"" + Long.toHexString(state)
+                + "\",\"moves\":" + cube.getHistoryPosition()
+                + ",\"redo\":" + (cube.getHistoryLength() - cube.getHistoryPosition())
+                + ",\"solved\":" + PackedState.isSolved(state)
+                + ",\"distance\":" + cube.distanceToSolved() + "}";
+    }
+
+    private static void expect(String method, String allowed) {
+        if (!method.equals(allowed)) throw new HttpError(405, "Use " + allowed);
+    }
+
+    private static int queryInt(URI uri, String name, int fallback) {
+        String query = uri.getRawQuery();
+        if (query == null) return fallback;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                try {
+                    return Integer.parseInt(pair.substring(name.length() + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad " + name + ": " + pair.substring(name.length() + 1));
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) throw new HttpError(413, "Body longer than " + MAX_BODY + " bytes");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0) ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // JSON string literal; ids and notation are ASCII, messages may echo client input
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static final class HttpError extends RuntimeException {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
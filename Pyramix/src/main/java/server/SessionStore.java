@@ -0,0 +1,126 @@
+package server;
+
+import model.Pyraminx;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Many independent puzzles keyed by session id, safe to use from any number of threads.
+ * Locking is per session: withSession holds only that session's monitor, and the map is a
+ * ConcurrentHashMap, so requests on different sessions never wait for each other; sequence
+ * applies also meet in AlgorithmCache, whose hits take no lock (with virtual threads a
+ * blocked monitor unmounts the carrier as of JDK 24). Sessions not used
+ * for idleTimeout are dropped by evictIdle, which the owner calls periodically.
+ * A session is a packed-state Pyraminx whose history buffers are only allocated on the
+ * first move, so an idle session costs a couple of hundred bytes including its map entry.
+ */
+final class SessionStore {
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Sessions in the map plus slots reserved by create; never above maxSessions
+    private final AtomicInteger count = new AtomicInteger();
+    private final int historyLimit;
+    private final int maxSessions;
+    private final long idleTimeout;
+    private final LongSupplier clock;
+
+    // cube and closed are guarded by the session's monitor
+    private static final class Session {
+        final Pyraminx cube;
+        volatile long lastUsed; // read without the lock by evictIdle
+        boolean closed; // evicted or deleted; requests that raced with that see no session
+
+        Session(Pyraminx cube, long now) {
+            this.cube = cube;
+            this.lastUsed = now;
+        }
+    }
+
+    /** Store timing idleness in nanoseconds of System.nanoTime. */
+    SessionStore(int historyLimit, int maxSessions, long idleTimeoutNanos) {
+        this(historyLimit, maxSessions, idleTimeoutNanos, System::nanoTime);
+    }
+
+    SessionStore(int historyLimit, int maxSessions, long idleTimeout, LongSupplier clock) {
+        if (maxSessions <= 0) throw new IllegalArgumentException("Session limit must be positive: " + maxSessions);
+        if (idleTimeout <= 0) throw new IllegalArgumentException("Idle timeout must be positive: " + idleTimeout);
+        this.historyLimit = historyLimit;
+        this.maxSessions = maxSessions;
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+    }
+
+    /** Thrown by create when the store already holds maxSessions sessions. */
+    static final class FullException extends RuntimeException {
+        FullException(int maxSessions) {
+            super("Session limit reached: " + maxSessions);
+        }
+    }
+
+    /** Creates a solved session and returns its id; FullException when full. */
+    String create() {
+        // Reserve a slot first, so concurrent creates cannot overshoot the limit
+        if (count.incrementAndGet() > maxSessions) {
+            count.decrementAndGet();
+            throw new FullException(maxSessions);
+        }
+        String id = Long.toString(nextId.getAndIncrement(), 36);
+        sessions.put(id, new Session(new Pyraminx(historyLimit), clock.getAsLong()));
+        return id;
+    }
+
+    /**
+     * Runs action on the session's puzzle while holding its lock and returns the result,
+     * or null if there is no such session. action must not return null, and should not
+     * block: other requests for the same session wait for it.
+     */
+    <T> T withSession(String id, Function<? super Pyraminx, ? extends T> action) {
+        Session session = sessions.get(id);
+        if (session == null) return null;
+        synchronized (session) {
+            if (session.closed) return null;
+            session.lastUsed = clock.getAsLong();
+            return action.apply(session.cube);
+        }
+    }
+
+    boolean remove(String id) {
+        Session session = sessions.remove(id);
+        if (session == null) return false;
+        count.decrementAndGet();
+        synchronized (session) {
+            session.closed = true;
+        }
+        return true;
+    }
+
+    /** Drops every session unused for longer than the idle timeout; returns how many. */
+    int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            // Cheap unlocked look first; a session in use is never idle
+            if (now - session.lastUsed <= idleTimeout) continue;
+            synchronized (session) {
+                if (session.closed || now - session.lastUsed <= idleTimeout) continue;
+                session.closed = true;
+            }
+            // A concurrent remove may have taken it already; count it only once
+            if (sessions.remove(entry.getKey(), session)) {
+                count.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    int size() {
+        return count.get();
+    }
+}
@@ -2,91 +2,187 @@ package view;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.control.*;
-import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
+import model.Metrics;
+import model.PackedState;
 import model.Pyraminx;
-
+import model.PyraminxEvents;
+
+/**
+ * Draws the 2D net of a Pyraminx on a canvas. One PyraminxView belongs to each canvas
+ * (see forCanvas) and keeps the sticker geometry for the current canvas size, the
+ * state it last drew and its scratch arrays. render repaints only the stickers that
+ * PackedState.changedStickers reports between that state and the new one: a single
+ * move repaints 12 of the 36 triangles, a tip-only move 3. The whole net is drawn again
+ * only when the canvas size changes or after invalidate. Nothing is allocated per frame.
+ * Must be used on the JavaFX application thread.
+ */
 public class PyraminxView {
+    // Vertex arrays hold 3 points per triangle: stickers 0..35 (face * 9 + index), then the 4 face outlines
+    public static final int OUTLINE_BASE = 36;
+    public static final int GEOMETRY_SIZE = (OUTLINE_BASE + 4) * 3;
+    private static final long ALL_STICKERS = (1L << OUTLINE_BASE) - 1;
+    private static final String RENDERER_KEY = PyraminxView.class.getName();
+
+    // Faces in drawing order with their net position (dx in face sizes, dy in outline heights) and flips
+    private static final int[] FACE_ORDER = {2, 1, 0, 3};
+    private static final double[] FACE_DX = {-1, 0, 1, 0};
+    private static final double[] FACE_DY = {-0.6, -0.6, -0.6, 0.6};
+    private static final double[] FACE_SX = {1, 1, -1, -1};  // Yellow flipped, Blue flipped both ways
+    private static final double[] FACE_SY = {1, 1, 1, -1};
+
+    // Sticker indices in drawing order: tip, corners, center, bottom corners, bottom centers
+    private static final int[] STICKER_ORDER = {0, 1, 2, 6, 3, 5, 7, 4, 8};
+    private static final double SQRT3_2 = Math.sqrt(3) / 2;
+    private static final Color[] FACE_FILL = new Color[4];
+
+    static {
+        for (int f = 0; f < 4; f++) FACE_FILL[f] = fxColor(Pyraminx.FACE_COLOR[f]);
+    }
 
-    public static void drawPyraminx(Pyraminx cube, Canvas canvas) {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-
-        double size = 120;
-        double h = Math.sqrt(3) / 2 * size;
-        double cx = canvas.getWidth() / 2;
-        double cy = canvas.getHeight() / 2;
-
-        double topY = cy - h * 0.6;
-        drawFace(gc, cx - size, topY, size, 2, 0, cube);     // Green (left)
-        drawFace(gc, cx, topY, size, 1, 0, cube);            // Red (center)
-        drawFace(gc, cx + size, topY, size, 0, 180, cube);   // Yellow (right, flipped)
-
-        double bottomY = cy + h * 0.6;
-        drawFace(gc, cx, bottomY, size, 3, -1, cube);  // Blue (bottom, flipped both ways)
+    private final Canvas canvas;
+    private final double[] xs = new double[GEOMETRY_SIZE];
+    private final double[] ys = new double[GEOMETRY_SIZE];
+    private final double[] px = new double[3];
+    private final double[] py = new double[3];
+    private double width = -1;
+    private double height = -1;
+    private long shown;
+    private boolean valid;
+
+    public PyraminxView(Canvas canvas) {
+        this.canvas = canvas;
     }
 
-    private static void drawFace(GraphicsContext gc, double cx, double cy, double size, int face, double rot, Pyraminx cube) {
-        double h = Math.sqrt(3) / 2 * size;
-        boolean flipHorizontal = (rot == 180);
-        boolean flipBoth = (rot == -1);
-
-        gc.save();
-        gc.translate(cx, cy);
-        if (flipHorizontal) {
-            gc.scale(-1, 1); // Flip horizontally only
-        } else if (flipBoth) {
-            gc.scale(-1, -1); // Flip both horizontally and vertically
+    /** The view kept in the canvas properties, created on first use. */
+    public static PyraminxView forCanvas(Canvas canvas) {
+        PyraminxView view = (PyraminxView) canvas.getProperties().get(RENDERER_KEY);
+        if (view == null) {
+            view = new PyraminxView(canvas);
+            canvas.getProperties().put(RENDERER_KEY, view);
         }
+        return view;
+    }
 
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(2);
-        gc.strokePolygon(new double[]{0, -size/2, size/2}, new double[]{-h/2, h/2, h/2}, 3);
-
-        double s = size / 3;
-        double hs = Math.sqrt(3) / 2 * s;
-
-        // Draw tip
-        drawTriangle(gc, 0, -h/2 + hs/3, s, cube.getSticker(face, 0), false);
+    public static void drawPyraminx(Pyraminx cube, Canvas canvas) {
+        forCanvas(canvas).render(cube.getState());
+    }
 
-        // Draw corners
-        drawTriangle(gc, -s/2, -h/2 + hs + hs/3, s, cube.getSticker(face, 1), false);
-        drawTriangle(gc, s/2, -h/2 + hs + hs/3, s, cube.getSticker(face, 2), false);
+    /** Makes the next render draw the whole net, e.g. after something else drew on the canvas. */
+    public void invalidate() {
+        valid = false;
+    }
 
-        // Draw center
-        drawTriangle(gc, 0, -h/2 + hs * 1.33, s, cube.getSticker(face, 6), true);
+    /** Brings the canvas up to date with state and returns how many stickers were painted. */
+    public int render(long state) {
+        PyraminxEvents.Redraw event = new PyraminxEvents.Redraw();
+        event.begin();
+        long t = Metrics.start();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
 
-        // Draw bottom corners
-        drawTriangle(gc, -size/2 + s/2, -h/2 + 2*hs + hs/3, s, cube.getSticker(face, 3), false);
-        drawTriangle(gc, size/2 - s/2, -h/2 + 2*hs + hs/3, s, cube.getSticker(face, 5), false);
+        long dirty;
+        if (!valid || canvas.getWidth() != width || canvas.getHeight() != height) {
+            width = canvas.getWidth();
+            height = canvas.getHeight();
+            computeGeometry(width, height, xs, ys);
+            gc.clearRect(0, 0, width, height);
+            dirty = ALL_STICKERS;
+            valid = true;
+        } else {
+            dirty = PackedState.changedStickers(shown, state);
+        }
+        shown = state;
+
+        int painted = 0;
+        if (dirty != 0) {
+            gc.setStroke(Color.BLACK);
+            for (int face : FACE_ORDER) {
+                long faceDirty = (dirty >>> (face * 9)) & 0x1FF;
+                if (faceDirty == 0) continue;
+                gc.setLineWidth(1);
+                for (int index : STICKER_ORDER) {
+                    if ((faceDirty & (1L << index)) == 0) continue;
+                    copyTriangle(xs, ys, face * 9 + index, px, py);
+                    gc.setFill(FACE_FILL[PackedState.stickerFace(state, face, index)]);
+                    gc.fillPolygon(px, py, 3);
+                    gc.strokePolygon(px, py, 3);
+                    painted++;
+                }
+                // Repainted border stickers cover part of the outline, so stroke it again on top
+                copyTriangle(xs, ys, OUTLINE_BASE + face, px, py);
+                gc.setLineWidth(2);
+                gc.strokePolygon(px, py, 3);
+            }
+        }
 
-        // Draw bottom centers
-        drawTriangle(gc, -s/2, -h/2 + 2*hs * 1.17, s, cube.getSticker(face, 7), true);
-        drawTriangle(gc, 0, -h/2 + 2*hs + hs/3, s, cube.getSticker(face, 4), false);
-        drawTriangle(gc, s/2, -h/2 + 2*hs * 1.17, s, cube.getSticker(face, 8), true);
+        Metrics.stop(Metrics.Timer.DRAW, t);
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.stickers = painted;
+            event.commit();
+        }
+        return painted;
+    }
 
-        gc.restore();
+    /**
+     * Fills xs/ys (GEOMETRY_SIZE each) with the canvas coordinates of every sticker
+     * triangle and face outline of the 2D net for a canvas of the given size.
+     */
+    public static void computeGeometry(double width, double height, double[] xs, double[] ys) {
+        double size = 120;
+        double h = SQRT3_2 * size;
+        double cx = width / 2;
+        double cy = height / 2;
+
+        for (int k = 0; k < FACE_ORDER.length; k++) {
+            int face = FACE_ORDER[k];
+            double fx = cx + FACE_DX[k] * size;
+            double fy = cy + FACE_DY[k] * h;
+            double sx = FACE_SX[k];
+            double sy = FACE_SY[k];
+
+            int o = (OUTLINE_BASE + face) * 3;
+            setPoint(xs, ys, o, fx, fy, sx, sy, 0, -h / 2);
+            setPoint(xs, ys, o + 1, fx, fy, sx, sy, -size / 2, h / 2);
+            setPoint(xs, ys, o + 2, fx, fy, sx, sy, size / 2, h / 2);
+
+            double s = size / 3;
+            double hs = SQRT3_2 * s;
+            int base = face * 9;
+            triangle(xs, ys, base, fx, fy, sx, sy, 0, -h/2 + hs/3, s, false);                  // tip
+            triangle(xs, ys, base + 1, fx, fy, sx, sy, -s/2, -h/2 + hs + hs/3, s, false);       // corners
+            triangle(xs, ys, base + 2, fx, fy, sx, sy, s/2, -h/2 + hs + hs/3, s, false);
+            triangle(xs, ys, base + 6, fx, fy, sx, sy, 0, -h/2 + hs * 1.33, s, true);           // center
+            triangle(xs, ys, base + 3, fx, fy, sx, sy, -size/2 + s/2, -h/2 + 2*hs + hs/3, s, false);
+            triangle(xs, ys, base + 5, fx, fy, sx, sy, size/2 - s/2, -h/2 + 2*hs + hs/3, s, false);
+            triangle(xs, ys, base + 7, fx, fy, sx, sy, -s/2, -h/2 + 2*hs * 1.17, s, true);      // bottom centers
+            triangle(xs, ys, base + 4, fx, fy, sx, sy, 0, -h/2 + 2*hs + hs/3, s, false);
+            triangle(xs, ys, base + 8, fx, fy, sx, sy, s/2, -h/2 + 2*hs * 1.17, s, true);
+        }
     }
 
-    private static void drawTriangle(GraphicsContext gc, double cx, double cy, double s,
-                              model.Color4 color, boolean inverted) {
-        double h = Math.sqrt(3) / 2 * s;
-        double[] xs, ys;
+    private static void triangle(double[] xs, double[] ys, int tri, double fx, double fy, double sx, double sy,
+                                 double cx, double cy, double s, boolean inverted) {
+        double h = SQRT3_2 * s;
+        double tipY = inverted ? cy + h/2 : cy - h/2;
+        double baseY = inverted ? cy - h/2 : cy + h/2;
+        int o = tri * 3;
+        setPoint(xs, ys, o, fx, fy, sx, sy, cx, tipY);
+        setPoint(xs, ys, o + 1, fx, fy, sx, sy, cx - s/2, baseY);
+        setPoint(xs, ys, o + 2, fx, fy, sx, sy, cx + s/2, baseY);
+    }
 
-        if (!inverted) {
-            xs = new double[]{cx, cx - s/2, cx + s/2};
-            ys = new double[]{cy - h/2, cy + h/2, cy + h/2};
-        } else {
-            xs = new double[]{cx, cx - s/2, cx + s/2};
-            ys = new double[]{cy + h/2, cy - h/2, cy - h/2};
-        }
+    // Local face coordinates -> canvas, same as translate(fx, fy) then scale(sx, sy)
+    private static void setPoint(double[] xs, double[] ys, int i, double fx, double fy,
+                                 double sx, double sy, double x, double y) {
+        xs[i] = fx + sx * x;
+        ys[i] = fy + sy * y;
+    }
 
-        gc.setFill(fxColor(color));
-        gc.fillPolygon(xs, ys, 3);
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(1);
-        gc.strokePolygon(xs, ys, 3);
+    private static void copyTriangle(double[] xs, double[] ys, int tri, double[] px, double[] py) {
+        System.arraycopy(xs, tri * 3, px, 0, 3);
+        System.arraycopy(ys, tri * 3, py, 0, 3);
     }
 
     private static Color fxColor(model.Color4 c) {
@@ -0,0 +1,106 @@
+package view;
+
+import javafx.animation.AnimationTimer;
+import model.CompiledAlgorithm;
+import model.MoveHistory;
+import model.Pyraminx;
+
+/**
+ * Coalesces redraws to at most one per JavaFX pulse. Handlers change the puzzle and call
+ * requestRender; the timer then renders the canvas through its PyraminxView and runs the
+ * onFrame callback (log text, button states) once, however many changes came in since
+ * the last frame. The timer only runs while there is something to draw.
+ * animate plays an algorithm at a given number of moves per second: each frame applies
+ * every move that is due by then, so at rates above the frame rate several moves land in
+ * one frame and the frames in between are skipped. Any other change to the puzzle should
+ * call finishAnimation first so the history stays in order.
+ * Must be used on the JavaFX application thread.
+ */
+public class RenderScheduler extends AnimationTimer {
+    private final Pyraminx cube;
+    private final PyraminxView view;
+    private final Runnable onFrame;
+    private boolean dirty;
+    private boolean running;
+
+    // Animation in progress: next entry to apply, when it started and at what rate
+    private CompiledAlgorithm animation;
+    private int applied;
+    private long animationStart = -1;
+    private double movesPerSecond;
+
+    public RenderScheduler(Pyraminx cube, PyraminxView view, Runnable onFrame) {
+        this.cube = cube;
+        this.view = view;
+        this.onFrame = onFrame;
+    }
+
+    /** Marks the view out of date; it is redrawn on the next pulse. */
+    public void requestRender() {
+        dirty = true;
+        wake();
+    }
+
+    /** Applies algorithm one move at a time at movesPerSecond, recording each move. */
+    public void animate(CompiledAlgorithm algorithm, double movesPerSecond) {
+        if (movesPerSecond <= 0) throw new IllegalArgumentException("Rate must be positive");
+        finishAnimation();
+        if (algorithm.length() == 0) return;
+        animation = algorithm;
+        applied = 0;
+        animationStart = -1;
+        this.movesPerSecond = movesPerSecond;
+        wake();
+    }
+
+    public boolean isAnimating() {
+        return animation != null;
+    }
+
+    /** Applies the moves of the running animation that are still left, at once. */
+    public void finishAnimation() {
+        if (animation == null) return;
+        applyUpTo(animation.length());
+        requestRender();
+    }
+
+    private void wake() {
+        if (!running) {
+            running = true;
+            start();
+        }
+    }
+
+    @Override
+    public void handle(long now) {
+        if (animation != null) {
+            if (animationStart < 0) animationStart = now;
+            // One move is due immediately, then one every 1 / movesPerSecond seconds
+            long due = 1 + (long) ((now - animationStart) * movesPerSecond / 1e9);
+            int target = (int) Math.min(due, animation.length());
+            if (target > applied) {
+                applyUpTo(target);
+                dirty = true;
+            }
+        }
+        if (dirty) {
+            dirty = false;
+            view.render(cube.getState());
+            onFrame.run();
+        }
+        if (animation == null && !dirty) {
+            running = false;
+            stop();
+        }
+    }
+
+    private void applyUpTo(int target) {
+        CompiledAlgorithm a = animation;
+        for (int i = applied; i < target; i++) {
+            int entry = a.entry(i);
+            cube.apply(MoveHistory.move(entry), MoveHistory.isTipOnly(entry));
+        }
+        applied = target;
+        if (applied == a.length()) animation = null;
+    }
+}
@@ -0,0 +1,67 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkAnalyzerTest {
+
+    @Test
+    void testOutputMatchesSolverInOrder(@TempDir Path dir) throws IOException {
+        Random rng = new Random(17);
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        Solver solver = new Solver();
+        String[] names = {"R", "R'", "L", "L'", "U", "U'", "B", "B'"};
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder line = new StringBuilder();
+            int moves = rng.nextInt(25);
+            for (int k = 0; k < moves; k++) line.append(k > 0 ? " " : "").append(names[rng.nextInt(8)]);
+            if (i % 500 == 7) {
+                input.append("R X\n");
+                expected.append("error: Unknown move: X\n");
+                continue;
+            }
+            input.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+            long solution = solver.solvePacked(PackedState.applySequence(PackedState.SOLVED, line));
+            int length = Solver.packedLength(solution);
+            expected.append(length).append(length > 0 ? " " + Solver.format(solution) : "").append('\n');
+        }
+        Path file = dir.resolve("scrambles.txt");
+        // No newline after the last line
+        Files.writeString(file, input.substring(0, input.length() - 1));
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            // A tiny chunk size puts many lines across chunk boundaries
+            for (int chunk : new int[] {37, 4096, BulkAnalyzer.DEFAULT_CHUNK}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                BulkAnalyzer.Report report = new BulkAnalyzer(pool, chunk).run(file, out);
+                assertEquals(expected.toString(), out.toString(StandardCharsets.ISO_8859_1), "chunk " + chunk);
+                assertEquals(2000, report.lines());
+                assertEquals(4, report.errors());
+                long total = 0;
+                for (long c : report.layerLengths()) total += c;
+                assertEquals(1996, total);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectsOverlongLines(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("long.txt");
+        Files.writeString(file, "R\n" + "R ".repeat(BulkAnalyzer.MAX_LINE) + "\nL\n");
+        assertThrows(IOException.class, () -> new BulkAnalyzer(ForkJoinPool.commonPool(), 64).run(file, null));
+    }
+}
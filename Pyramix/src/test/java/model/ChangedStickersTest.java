@@ -0,0 +1,32 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** PackedState.changedStickers, the dirty mask PyraminxView repaints from. */
+class ChangedStickersTest {
+
+    @Test
+    void testChangedStickersCoverEveryDifference() {
+        Random rng = new Random(21);
+        long s = PackedState.SOLVED;
+        for (int i = 0; i < 2000; i++) {
+            int m = rng.nextInt(8);
+            long next = rng.nextInt(4) == 0 ? PackedState.applyTip(s, m) : PackedState.apply(s, m);
+            long mask = PackedState.changedStickers(s, next);
+            for (int k = 0; k < 36; k++) {
+                if (PackedState.stickerFace(s, k / 9, k % 9) != PackedState.stickerFace(next, k / 9, k % 9)) {
+                    assertTrue((mask & (1L << k)) != 0, "sticker " + k);
+                }
+            }
+            // A layer move touches 3 edges, a center and a tip; a tip move only the tip
+            assertEquals((next & ~PackedState.TIP_MASK) == (s & ~PackedState.TIP_MASK) ? 3 : 12,
+                    Long.bitCount(mask));
+            s = next;
+        }
+        assertEquals(0, PackedState.changedStickers(s, s));
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledAlgorithmTest {
+
+    @Test
+    void testSimplification() {
+        assertEquals("R'", CompiledAlgorithm.compile("R R").toString());
+        assertEquals(0, CompiledAlgorithm.compile("R R'").length());
+        assertEquals(0, CompiledAlgorithm.compile("R R R").length());
+        assertEquals(0, CompiledAlgorithm.compile("R U U' R'").length());
+        assertEquals("L U'", CompiledAlgorithm.compile("  L U U  ").toString());
+        // Tip and layer turns of the same axis are not merged
+        assertEquals("R r", CompiledAlgorithm.compile("R r").toString());
+        assertEquals("b", CompiledAlgorithm.compile("b' b'").toString());
+    }
+
+    @Test
+    void testUnknownMoveRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledAlgorithm.compile("R X"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledAlgorithm.compile("R''"));
+    }
+
+    @Test
+    void testApplyToMatchesMoveByMove() {
+        Random rng = new Random(10);
+        String[] tokens = {"R", "R'", "L", "L'", "U", "U'", "B", "B'", "r", "l'", "u", "b'"};
+        for (int t = 0; t < 200; t++) {
+            StringBuilder seq = new StringBuilder();
+            long expected = PackedState.SOLVED;
+            int n = rng.nextInt(40);
+            for (int i = 0; i < n; i++) {
+                String tok = tokens[rng.nextInt(tokens.length)];
+                seq.append(tok).append(' ');
+                int m = "RLUB".indexOf(Character.toUpperCase(tok.charAt(0))) * 2 + tok.length() - 1;
+                expected = Character.isLowerCase(tok.charAt(0))
+                        ? PackedState.applyTip(expected, m) : PackedState.apply(expected, m);
+            }
+            CompiledAlgorithm alg = CompiledAlgorithm.compile(seq);
+            long start = PackedState.applySequence(PackedState.SOLVED, "L U' B R B");
+            assertEquals(expected, alg.applyTo(PackedState.SOLVED), seq.toString());
+            assertEquals(CompiledAlgorithm.compile("L U' B R B " + seq).applyTo(PackedState.SOLVED),
+                    alg.applyTo(start), seq.toString());
+        }
+    }
+
+    @Test
+    void testPyraminxRecordsSimplifiedMoves() {
+        Pyraminx p = new Pyraminx();
+        p.apply("R U U L L'");
+        assertEquals("R U'", p.getMoveHistory());
+        p.undo();
+        p.undo();
+        assertTrue(p.isSolved());
+
+        p.clockwiseCycle();
+        assertEquals(PackedState.applySequence(PackedState.SOLVED, "R' U' R U' R' U' R"), p.getState());
+    }
+
+    @Test
+    void testCacheNormalizesAndEvicts() {
+        AlgorithmCache cache = new AlgorithmCache(2);
+        CompiledAlgorithm first = cache.get("R  U'");
+        assertSame(first, cache.get(" R U' "));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        cache.get("L");
+        cache.get("R U'");  // touch, so "L" is now the eldest
+        cache.get("B");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertSame(first, cache.get("R U'"));
+        assertEquals(3, cache.misses());
+        // Too long to cache: compiled every time, nothing evicted
+        String longSequence = "R U ".repeat(AlgorithmCache.MAX_KEY_LENGTH);
+        assertEquals(cache.get(longSequence).length(), cache.get(longSequence).length());
+        assertEquals(2, cache.size());
+        assertEquals(5, cache.misses());
+        assertSame(first, cache.get("R U'"));
+    }
+
+    @Test
+    void testCacheStaysBoundedUnderConcurrentMisses() throws Exception {
+        AlgorithmCache cache = new AlgorithmCache(8);
+        String[] sequences = {"R", "L", "U", "B", "R'", "L'", "U'", "B'", "R U", "L U", "U B", "B R"};
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String seq = sequences[(i * 7 + offset) % sequences.length];
+                    assertEquals(PackedState.applySequence(PackedState.SOLVED, seq),
+                            cache.get(seq).applyTo(PackedState.SOLVED));
+                }
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+        assertTrue(cache.size() <= 8, cache.toString());
+        assertEquals(4 * 5000, cache.hits() + cache.misses());
+    }
+}
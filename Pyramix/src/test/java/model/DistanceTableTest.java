@@ -0,0 +1,73 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceTableTest {
+
+    @Test
+    void testGeneratesPersistsAndReopens(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("distance.bin");
+        DistanceTable generated = DistanceTable.open(file);
+        assertTrue(Files.exists(file));
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        DistanceTable mapped = DistanceTable.open(file);
+        assertEquals(modified, Files.getLastModifiedTime(file).toMillis(), "Valid table should not be rebuilt");
+
+        int[] histogram = mapped.histogram();
+        assertEquals(Coordinates.STATE_COUNT, Arrays.stream(histogram).sum());
+        assertEquals(1, histogram[0]);
+        assertEquals(8, histogram[1]);
+        assertEquals(11, histogram.length - 1, "God's number without tips is 11");
+        assertArrayEquals(generated.histogram(), histogram);
+    }
+
+    @Test
+    void testDistanceMatchesSolver() {
+        DistanceTable table = DistanceTable.inMemory();
+        Solver solver = new Solver();
+        Random rng = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            long s = PackedState.SOLVED;
+            for (int k = 0; k < 25; k++) s = PackedState.apply(s, rng.nextInt(8));
+            assertEquals(solver.distance(s), table.distance(s));
+
+            List<Move> moves = table.solve(s);
+            assertEquals(table.distance(s), moves.size());
+            for (Move m : moves) s = PackedState.apply(s, m);
+            assertEquals(0, Coordinates.index(s));
+        }
+    }
+
+    @Test
+    void testParallelBuildMatchesSingleThread() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(4);
+        try {
+            int size = Coordinates.PERM_COUNT * Coordinates.CENTER_COUNT;
+            byte[] a = TableBuilder.build(size, Coordinates.MOVE_COUNT, DistanceTableTest::permCenterMove, single, false);
+            byte[] b = TableBuilder.build(size, Coordinates.MOVE_COUNT, DistanceTableTest::permCenterMove, wide, false);
+            assertArrayEquals(a, b);
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+    }
+
+    private static int permCenterMove(int i, int m) {
+        int n = Coordinates.MOVE_COUNT;
+        return Coordinates.PERM_MOVE[(i / Coordinates.CENTER_COUNT) * n + m] * Coordinates.CENTER_COUNT
+                + Coordinates.CENTER_MOVE[(i % Coordinates.CENTER_COUNT) * n + m];
+    }
+}
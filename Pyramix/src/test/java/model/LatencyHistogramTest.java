@@ -0,0 +1,62 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        Random rng = new Random(18);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(rng.nextDouble() * 20);
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] {50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(values.length * p / 100) - 1];
+            long got = h.percentile(p);
+            assertTrue(got <= exact && exact - got <= exact / 64 + 1, p + ": " + got + " vs " + exact);
+        }
+        LatencyHistogram.Summary s = h.summary();
+        assertEquals(values.length, s.count());
+        assertEquals(values[values.length - 1], s.max());
+
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(0, h.percentile(0));
+        assertEquals(LatencyHistogram.MAX_VALUE, h.summary().max());
+        h.reset();
+        assertEquals(0, h.summary().count());
+    }
+
+    @Test
+    void testConcurrentRecording() {
+        LatencyHistogram h = new LatencyHistogram();
+        IntStream.range(0, 400_000).parallel().forEach(i -> h.record(i % 1000));
+        assertEquals(400_000, h.count());
+        assertEquals(499, h.percentile(50), 8);
+    }
+
+    @Test
+    void testMetricsOffByDefault() {
+        // Without -Dpyraminx.metrics=true nothing is recorded
+        Metrics.reset();
+        Pyraminx p = new Pyraminx();
+        p.apply("R U L'");
+        p.undo();
+        assertEquals(Metrics.ENABLED ? 1 : 0, Metrics.get(Metrics.Counter.UNDOS));
+        // The second redo has nothing to redo and is not counted
+        p.redo();
+        p.redo();
+        assertEquals(Metrics.ENABLED ? 1 : 0, Metrics.get(Metrics.Counter.REDOS));
+        assertTrue(Metrics.snapshot().format().contains("apply(String)"));
+    }
+}
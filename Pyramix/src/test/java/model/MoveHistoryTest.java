@@ -0,0 +1,170 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTest {
+
+    @Test
+    void testUndoRedoCursor() {
+        MoveHistory h = new MoveHistory();
+        h.push(MoveHistory.encode(Move.R, false));
+        h.push(MoveHistory.encode(Move.U_PRIME, true));
+        assertEquals(2, h.size());
+
+        int last = h.undo();
+        assertEquals(Move.U_PRIME, MoveHistory.move(last));
+        assertTrue(MoveHistory.isTipOnly(last));
+        assertTrue(h.canRedo());
+        assertEquals(last, h.redo());
+        assertFalse(h.canRedo());
+
+        // A new move after an undo drops the redo entries
+        h.undo();
+        h.push(MoveHistory.encode(Move.B, false));
+        assertFalse(h.canRedo());
+        assertArrayEquals(new byte[] {(byte) Move.R.ordinal(), (byte) Move.B.ordinal()}, h.toArray());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        MoveHistory h = new MoveHistory();
+        for (int i = 0; i < 1000; i++) h.push(i & 15);
+        for (int i = 0; i < 1000; i++) assertEquals(i & 15, h.get(i));
+        for (int i = 999; i >= 0; i--) assertEquals(i & 15, h.undo());
+        assertEquals(-1, h.undo());
+    }
+
+    @Test
+    void testLimitDropsOldestMoves() {
+        MoveHistory h = new MoveHistory(5);
+        for (int i = 0; i < 13; i++) h.push(i & 15);
+        assertEquals(5, h.size());
+        assertArrayEquals(new byte[] {8, 9, 10, 11, 12}, h.toArray());
+
+        h.undo();
+        h.undo();
+        h.push(0);
+        assertArrayEquals(new byte[] {8, 9, 10, 0}, h.toArray());
+
+        h.load(new byte[] {1, 2, 3, 4, 5, 6, 7}, 7);
+        assertArrayEquals(new byte[] {3, 4, 5, 6, 7}, h.toArray());
+    }
+
+    @Test
+    void testPyraminxWithHistoryLimit() {
+        Pyraminx p = new Pyraminx(3);
+        p.apply("R U L B");
+        assertEquals("U L B", p.getMoveHistory());
+        p.undo();
+        p.undo();
+        p.undo();
+        assertFalse(p.canUndo());
+        p.redo();
+        assertEquals("U", p.getMoveHistory());
+    }
+
+    @Test
+    void testSeekMatchesReplay() {
+        Random rng = new Random(12);
+        Pyraminx p = new Pyraminx();
+        long[] states = new long[2001];
+        states[0] = p.getState();
+        for (int i = 1; i <= 2000; i++) {
+            p.apply(Move.values()[rng.nextInt(8)], rng.nextInt(5) == 0);
+            states[i] = p.getState();
+        }
+        for (int t = 0; t < 300; t++) {
+            int target = rng.nextInt(2001);
+            p.seekTo(target);
+            assertEquals(states[target], p.getState(), "seek to " + target);
+            assertEquals(target, p.getHistoryPosition());
+        }
+
+        // A new move after seeking back replaces the rest of the history
+        p.seekTo(1000);
+        p.apply(Move.B);
+        assertEquals(1001, p.getHistoryLength());
+        p.seekTo(0);
+        assertTrue(p.isSolved());
+        p.seekTo(1001);
+        assertEquals(PackedState.apply(states[1000], Move.B), p.getState());
+    }
+
+    @Test
+    void testSeekWithLimitAndSmallInterval() {
+        Random rng = new Random(13);
+        MoveHistory h = new MoveHistory(100, 7);
+        long s = PackedState.SOLVED;
+        long[] states = new long[1001];
+        states[0] = s;
+        for (int i = 1; i <= 1000; i++) {
+            int entry = rng.nextInt(16);
+            s = MoveHistory.apply(s, entry);
+            h.push(entry);
+            h.checkpoint(s);
+            states[i] = s;
+        }
+        // Only the last 100 moves are left: index k is absolute move 900 + k
+        for (int t = 0; t < 200; t++) {
+            int target = rng.nextInt(101);
+            s = h.seek(target, s);
+            assertEquals(states[900 + target], s);
+        }
+
+        h.load(h.toArray(), h.size());
+        h.checkpoint(s);
+        s = h.seek(0, s);
+        assertEquals(states[900], s);
+    }
+
+    @Test
+    void testListenerMirrorsHistory() {
+        MoveHistory h = new MoveHistory(50, 8);
+        List<Integer> mirror = new ArrayList<>();
+        h.addListener((dropped, from, oldSize, newSize) -> {
+            assertEquals(mirror.size(), oldSize);
+            mirror.subList(0, dropped).clear();
+            mirror.subList(from, mirror.size()).clear();
+            for (int i = from; i < newSize; i++) mirror.add(h.get(i));
+        });
+        Random rnd = new Random(3);
+        long s = PackedState.SOLVED;
+        for (int i = 0; i < 2000; i++) {
+            int op = rnd.nextInt(10);
+            if (op < 6) {
+                int entry = rnd.nextInt(16);
+                s = MoveHistory.apply(s, entry);
+                h.push(entry);
+                h.checkpoint(s);
+            } else if (op == 6) {
+                int entry = h.undo();
+                if (entry >= 0) s = MoveHistory.unapply(s, entry);
+            } else if (op == 7) {
+                int entry = h.redo();
+                if (entry >= 0) s = MoveHistory.apply(s, entry);
+            } else if (op == 8) {
+                s = h.seek(rnd.nextInt(h.size() + h.redoSize() + 1), s);
+            } else {
+                h.load(h.toArray(), h.size());
+            }
+            assertEquals(h.size(), mirror.size());
+            for (int j = 0; j < mirror.size(); j++) assertEquals(h.get(j), mirror.get(j));
+        }
+        h.clear();
+        assertTrue(mirror.isEmpty());
+    }
+
+    @Test
+    void testNotation() {
+        assertEquals("R", MoveHistory.notation(MoveHistory.encode(Move.R, false)));
+        assertEquals("B'", MoveHistory.notation(MoveHistory.encode(Move.B_PRIME, false)));
+        assertEquals("u'", MoveHistory.notation(MoveHistory.encode(Move.U_PRIME, true)));
+        assertEquals("l", MoveHistory.notation(MoveHistory.encode(Move.L, true)));
+    }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedStateTest {
+
+    // Sticker cycles of each clockwise move, as {face, index} triples: a -> b -> c -> a
+    private static final int[][][][] MOVE_CYCLES = {
+            { // R
+                    {{0, 5}, {3, 3}, {1, 5}}, {{0, 8}, {3, 7}, {1, 8}},
+                    {{0, 2}, {3, 1}, {1, 4}}, {{0, 4}, {3, 4}, {1, 2}}
+            },
+            { // L
+                    {{1, 3}, {3, 5}, {2, 5}}, {{1, 7}, {3, 8}, {2, 8}},
+                    {{1, 1}, {3, 4}, {2, 4}}, {{1, 4}, {3, 2}, {2, 2}}
+            },
+            { // U
+                    {{0, 0}, {2, 0}, {1, 0}}, {{0, 6}, {2, 6}, {1, 6}},
+                    {{0, 1}, {2, 2}, {1, 2}}, {{0, 2}, {2, 1}, {1, 1}}
+            },
+            { // B
+                    {{0, 3}, {2, 3}, {3, 0}}, {{0, 7}, {2, 7}, {3, 6}},
+                    {{0, 1}, {2, 4}, {3, 1}}, {{0, 4}, {2, 1}, {3, 2}}
+            }
+    };
+
+    private static Color4[][] stickers(long s) {
+        Color4[][] out = new Color4[4][9];
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 9; i++) out[f][i] = PackedState.sticker(s, f, i);
+        }
+        return out;
+    }
+
+    @Test
+    void testSolvedStickersMatchFaceColors() {
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 9; i++) {
+                assertEquals(Pyraminx.FACE_COLOR[f], PackedState.sticker(PackedState.SOLVED, f, i));
+            }
+        }
+    }
+
+    @Test
+    void testMovesFollowStickerCycles() {
+        long s = PackedState.SOLVED;
+        Move[] moves = Move.values();
+        // Walk a fixed sequence so the check also covers non-solved starting states
+        for (int step = 0; step < 200; step++) {
+            int axis = (step * 7 + step / 3) % 4;
+            Color4[][] before = stickers(s);
+            s = PackedState.apply(s, moves[axis * 2]);
+            Color4[][] after = stickers(s);
+
+            Color4[][] expected = new Color4[4][];
+            for (int f = 0; f < 4; f++) expected[f] = before[f].clone();
+            for (int[][] cyc : MOVE_CYCLES[axis]) {
+                for (int k = 0; k < 3; k++) {
+                    int[] from = cyc[k];
+                    int[] to = cyc[(k + 1) % 3];
+                    expected[to[0]][to[1]] = before[from[0]][from[1]];
+                }
+            }
+            for (int f = 0; f < 4; f++) {
+                assertArrayEquals(expected[f], after[f], "Face " + f + " after step " + step);
+            }
+        }
+    }
+
+    @Test
+    void testPrimeUndoesMove() {
+        for (Move m : Move.values()) {
+            long s = PackedState.apply(PackedState.SOLVED, Move.B);
+            long once = PackedState.apply(s, m);
+            Move inverse = Move.values()[m.ordinal() ^ 1];
+            assertEquals(s, PackedState.apply(once, inverse), "Move " + m);
+            assertEquals(s, PackedState.applyTip(PackedState.applyTip(s, m), inverse), "Tip " + m);
+        }
+    }
+
+    @Test
+    void testEveryMoveHasOrderThree() {
+        for (Move m : Move.values()) {
+            long s = PackedState.SOLVED;
+            for (int i = 0; i < 3; i++) s = PackedState.apply(s, m);
+            assertTrue(PackedState.isSolved(s), "Move " + m + " x3");
+        }
+    }
+
+    @Test
+    void testTipMoveOnlyTouchesTip() {
+        long s = PackedState.applyTip(PackedState.SOLVED, Move.L);
+        assertEquals(1, PackedState.tipOri(s, 2));
+        assertEquals(PackedState.SOLVED, s & ~PackedState.TIP_MASK);
+        assertEquals(Color4.GREEN, PackedState.sticker(s, 1, 3));
+        assertEquals(Color4.RED, PackedState.sticker(s, 1, 7));
+    }
+}
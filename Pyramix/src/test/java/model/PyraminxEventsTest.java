@@ -0,0 +1,48 @@
+package model;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PyraminxEventsTest {
+
+    @Test
+    void testEventsAreRecorded(@TempDir Path dir) throws IOException {
+        Path save = dir.resolve("save.json");
+        Path dump = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {"ApplySequence", "Solve", "Save", "Load"}) {
+                recording.enable("pyraminx." + name);
+            }
+            recording.start();
+            Pyraminx p = new Pyraminx();
+            p.apply("R U L' B R'");
+            p.saveToFile(save.toString());
+            p.loadFromFile(save.toString());
+            new Solver().solvePacked(p.getState());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        RecordedEvent apply = find(events, "pyraminx.ApplySequence");
+        assertEquals(5, apply.getInt("moves"));
+        RecordedEvent solve = find(events, "pyraminx.Solve");
+        assertTrue(solve.getLong("nodes") > 0);
+        assertEquals(5, find(events, "pyraminx.Save").getInt("historyLength"));
+        assertTrue(find(events, "pyraminx.Load").getLong("bytes") > 0);
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
@@ -0,0 +1,31 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PyraminxStateTest {
+
+    @Test
+    void testZobristHashStaysInSyncWithMoves() {
+        Random rng = new Random(14);
+        PyraminxState s = PyraminxState.SOLVED;
+        for (int i = 0; i < 2000; i++) {
+            s = rng.nextInt(4) == 0 ? s.applyTip(rng.nextInt(8)) : s.apply(rng.nextInt(8));
+            assertEquals(PyraminxState.zobrist(s.packed()), s.hash());
+        }
+        PyraminxState same = PyraminxState.of(s.packed());
+        assertEquals(s, same);
+        assertEquals(s.hashCode(), same.hashCode());
+
+        // Usable as a set key: R then R' is back at solved
+        Set<PyraminxState> seen = new HashSet<>();
+        seen.add(PyraminxState.SOLVED);
+        assertFalse(seen.add(PyraminxState.SOLVED.apply(Move.R).apply(Move.R_PRIME)));
+        assertTrue(seen.add(PyraminxState.SOLVED.apply(Move.R)));
+    }
+}
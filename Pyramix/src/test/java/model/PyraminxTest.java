@@ -2,8 +2,10 @@ package model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -90,4 +92,105 @@ class PyraminxTest {
         pyraminx.apply(Move.L);      // new move should clear redo stack
         assertFalse(pyraminx.canRedo(), "Redo stack should be cleared after a new move");
     }
+
+    @Test
+    void testSolveFromScramble() {
+        pyraminx.scramble(25);
+        pyraminx.apply(Move.B, true);
+        int distance = pyraminx.distanceToSolved();
+        int before = pyraminx.getMoveCount();
+        pyraminx.solve();
+        assertTrue(pyraminx.isSolved(), "Solve should leave the puzzle solved");
+        assertEquals(distance, pyraminx.getMoveCount() - before, "Solve should take the shortest route");
+        assertEquals(0, pyraminx.distanceToSolved());
+        assertTrue(pyraminx.canUndo(), "Solution moves should be recorded in history");
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip(@TempDir Path dir) throws IOException {
+        pyraminx.apply("R U' B L'");
+        pyraminx.apply(Move.U, true);
+        String file = dir.resolve("save.json").toString();
+        pyraminx.saveToFile(file);
+
+        Pyraminx loaded = new Pyraminx();
+        loaded.loadFromFile(file);
+        assertEquals(pyraminx.getState(), loaded.getState(), "Loaded state should match saved state");
+        assertEquals("R U' B L' u", loaded.getMoveHistory());
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 9; i++) {
+                assertEquals(pyraminx.getSticker(f, i), loaded.getSticker(f, i));
+            }
+        }
+    }
+
+    @Test
+    void testUndoAfterJsonLoadKeepsTipMoves(@TempDir Path dir) throws IOException {
+        pyraminx.apply("R U'");
+        pyraminx.apply(Move.B, true);
+        pyraminx.apply(Move.L_PRIME, true);
+        long afterR = PackedState.apply(PackedState.SOLVED, Move.R);
+        String file = dir.resolve("save.json").toString();
+        pyraminx.saveToFile(file);
+
+        Pyraminx loaded = new Pyraminx();
+        loaded.loadFromFile(file);
+        loaded.undo();
+        pyraminx.undo();
+        assertEquals(pyraminx.getState(), loaded.getState(), "Undo must turn only the tip back");
+        loaded.seekTo(1);
+        assertEquals(afterR, loaded.getState());
+        loaded.seekTo(4);
+        loaded.seekTo(0);
+        assertTrue(loaded.isSolved());
+    }
+
+    @Test
+    void testLoadHandwrittenSave(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("save.json");
+        java.nio.file.Files.writeString(file, """
+                {"faces": [["RED", "x"]], "extra": {"a": [1, "]"]}, "tipOri": [1,0,2,0],
+                  "centerOri": [0, 0, 0, 0], "faceEdgeId": [[0,1,2],[0,3,4],[1,3,5],[2,4,5]],
+                  "faceEdgeOri": [[0,0,0],[0,0,0],[0,0,0],[0,0,0]], "history": ["R", "B_PRIME"]}
+                """);
+        pyraminx.loadFromFile(file.toString());
+        assertEquals(1, pyraminx.getTipOri(0));
+        assertEquals(2, pyraminx.getTipOri(2));
+        assertEquals("R B'", pyraminx.getMoveHistory());
+        assertTrue(pyraminx.canUndo(), "Loaded history should be undoable");
+
+        java.nio.file.Files.writeString(file, "{\"history\": [\"X\"]}");
+        assertThrows(IOException.class, () -> pyraminx.loadFromFile(file.toString()));
+    }
+
+    @Test
+    void testBinarySaveRoundTrip(@TempDir Path dir) throws IOException {
+        pyraminx.scramble(1001);
+        pyraminx.apply(Move.B_PRIME, true);
+        Path binary = dir.resolve("save.bin");
+        Path json = dir.resolve("save.json");
+        pyraminx.saveToFile(binary.toString(), SaveFormat.BINARY);
+        pyraminx.saveToFile(json.toString());
+        assertTrue(java.nio.file.Files.size(binary) * 10 < java.nio.file.Files.size(json),
+                "Binary save should be much smaller than JSON");
+
+        Pyraminx loaded = new Pyraminx();
+        loaded.loadFromFile(binary.toString());
+        assertEquals(pyraminx.getState(), loaded.getState());
+        assertEquals(1002, loaded.getMoveCount());
+        assertEquals(pyraminx.getMoveHistory(), loaded.getMoveHistory());
+
+        // Undoing the tip-only move must only turn the tip back
+        pyraminx.undo();
+        loaded.undo();
+        assertEquals(pyraminx.getState(), loaded.getState());
+
+        // Saving over the same file again, shorter this time, replaces it completely
+        loaded.compactHistory();
+        loaded.saveToFile(binary.toString(), SaveFormat.BINARY);
+        Pyraminx reloaded = new Pyraminx();
+        reloaded.loadFromFile(binary.toString());
+        assertEquals(loaded.getState(), reloaded.getState());
+        assertEquals(loaded.getMoveHistory(), reloaded.getMoveHistory());
+    }
 }
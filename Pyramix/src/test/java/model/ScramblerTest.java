@@ -0,0 +1,61 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScramblerTest {
+
+    @Test
+    void testScrambleAndSolutionMatchState() {
+        Scrambler scrambler = new Scrambler(42);
+        for (int i = 0; i < 200; i++) {
+            Scrambler.Scramble s = scrambler.next();
+            assertEquals(s.state(), s.scramble().applyTo(PackedState.SOLVED));
+            assertTrue(PackedState.isSolved(s.solution().applyTo(s.state())));
+            // At most 11 layer moves plus one turn per tip
+            assertTrue(s.solution().length() <= 15);
+        }
+    }
+
+    @Test
+    void testSeededScramblerIsReproducible() {
+        Scrambler a = new Scrambler(7);
+        Scrambler b = new Scrambler(7);
+        for (int i = 0; i < 100; i++) assertEquals(a.nextState(), b.nextState());
+    }
+
+    @Test
+    void testStatesAreUniform() {
+        // Every tip-less position has the same chance, so each distance shows up in
+        // proportion to how many positions sit at it
+        DistanceTable table = DistanceTable.inMemory();
+        int[] hist = table.histogram();
+        int n = 200_000;
+        int[] seen = new int[hist.length];
+        Scrambler.states(n).forEach(s -> {
+            synchronized (seen) {
+                seen[table.distance(s)]++;
+            }
+        });
+        for (int d = 0; d < hist.length; d++) {
+            double expected = (double) n * hist[d] / Coordinates.STATE_COUNT;
+            assertEquals(expected, seen[d], 5 * Math.sqrt(expected) + 1, "distance " + d);
+        }
+    }
+
+    @Test
+    void testParallelStream() {
+        List<Scrambler.Scramble> all = Scrambler.stream(1000).collect(Collectors.toList());
+        assertEquals(1000, all.size());
+        for (Scrambler.Scramble s : all) assertEquals(s.state(), s.scramble().applyTo(PackedState.SOLVED));
+
+        Pyraminx p = new Pyraminx();
+        p.scrambleRandomState();
+        p.solve();
+        assertTrue(p.isSolved());
+    }
+}
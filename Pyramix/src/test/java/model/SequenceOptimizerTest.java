@@ -0,0 +1,57 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceOptimizerTest {
+
+    @Test
+    void testOptimizedSequenceHasSameEffect() {
+        Random rng = new Random(20);
+        Solver solver = new Solver();
+        for (int t = 0; t < 500; t++) {
+            byte[] entries = new byte[rng.nextInt(60)];
+            for (int i = 0; i < entries.length; i++) entries[i] = (byte) rng.nextInt(16);
+            CompiledAlgorithm original = CompiledAlgorithm.fromEntries(entries, entries.length);
+            CompiledAlgorithm shortest = SequenceOptimizer.optimize(entries, entries.length);
+            long start = new Scrambler(t).nextState();
+            assertEquals(original.applyTo(start), shortest.applyTo(start));
+            assertTrue(shortest.length() <= original.length());
+
+            // Optimal: layer moves match the solver distance, plus one turn per twisted tip
+            long state = original.applyTo(PackedState.SOLVED);
+            int layers = 0;
+            for (int i = 0; i < shortest.length(); i++) if (!shortest.isTipOnly(i)) layers++;
+            assertEquals(solver.distance(state), layers);
+        }
+    }
+
+    @Test
+    void testKnownSequences() {
+        // A commutator pair that cancels out entirely
+        assertEquals(0, SequenceOptimizer.optimize("R U R' U' U R U' R'").length());
+        assertEquals("R'", SequenceOptimizer.optimize(List.of(Move.R, Move.R)).toString());
+        // Tip turns commute, so r ... r' cancels across other moves
+        CompiledAlgorithm tips = SequenceOptimizer.optimize("r U L r' L' U'");
+        assertEquals(0, tips.length());
+        CompiledAlgorithm kept = CompiledAlgorithm.compile("R U");
+        assertSame(kept, SequenceOptimizer.optimize(kept));
+    }
+
+    @Test
+    void testCompactHistoryKeepsState() {
+        Pyraminx p = new Pyraminx();
+        p.scramble(200);
+        p.apply(Move.L, true);
+        long state = p.getState();
+        int saved = p.compactHistory();
+        assertTrue(saved > 150);
+        assertEquals(state, p.getState());
+        while (p.canUndo()) p.undo();
+        assertTrue(p.isSolved());
+    }
+}
@@ -0,0 +1,134 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    private final Solver solver = new Solver();
+
+    @Test
+    void testSolvedNeedsNoMoves() {
+        assertTrue(solver.solve(PackedState.SOLVED).isEmpty());
+    }
+
+    @Test
+    void testCoordinatesRoundTrip() {
+        Random rng = new Random(1);
+        long s = PackedState.SOLVED;
+        for (int i = 0; i < 500; i++) {
+            s = PackedState.apply(s, rng.nextInt(8));
+            if (i % 3 == 0) s = PackedState.applyTip(s, rng.nextInt(8));
+            long rebuilt = Coordinates.fromCoords(Coordinates.perm(s), Coordinates.ori(s),
+                    Coordinates.center(s), Coordinates.tips(s));
+            assertEquals(s, rebuilt);
+        }
+    }
+
+    @Test
+    void testShortScramblesSolveOptimally() {
+        // Breadth-first distances of everything within four moves of solved
+        Map<Long, Integer> dist = new HashMap<>();
+        dist.put(PackedState.SOLVED, 0);
+        List<Long> frontier = List.of(PackedState.SOLVED);
+        for (int d = 1; d <= 4; d++) {
+            List<Long> next = new java.util.ArrayList<>();
+            for (long s : frontier) {
+                for (int m = 0; m < 8; m++) {
+                    long t = PackedState.apply(s, m) & ~PackedState.TIP_MASK;
+                    if (dist.putIfAbsent(t, d) == null) next.add(t);
+                }
+            }
+            frontier = next;
+        }
+        for (Map.Entry<Long, Integer> e : dist.entrySet()) {
+            assertEquals(e.getValue().intValue(), solver.distance(e.getKey()));
+        }
+    }
+
+    @Test
+    void testRandomStatesSolve() {
+        Random rng = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            long s = PackedState.SOLVED;
+            for (int k = 0; k < 30; k++) s = PackedState.apply(s, rng.nextInt(8));
+
+            List<Move> moves = solver.solve(s);
+            assertTrue(moves.size() <= 11, "Optimal solutions are at most 11 moves");
+            for (Move m : moves) s = PackedState.apply(s, m);
+            for (Move m : Solver.solveTips(s)) s = PackedState.applyTip(s, m);
+            assertTrue(PackedState.isSolved(s));
+        }
+    }
+
+    @Test
+    void testSolveCentersUsesLayerTurns() {
+        Random rng = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            long s = PackedState.SOLVED;
+            for (int k = 0; k < 20; k++) s = PackedState.apply(s, rng.nextInt(8));
+            for (Move m : Solver.solveCenters(s)) s = PackedState.apply(s, m);
+            assertEquals(0, s & PackedState.CENTER_MASK);
+            assertNull(StateValidator.check(s));
+        }
+
+        Pyraminx p = new Pyraminx();
+        p.apply("R U' L");
+        p.solveCenters();
+        assertTrue(p.centersSolved());
+        assertEquals(6, p.getMoveCount(), "Center turns should be recorded");
+        p.seekTo(0);
+        assertTrue(p.isSolved());
+    }
+
+    @Test
+    void testPackedSolutionSolvesTipsToo() {
+        long s = PackedState.applySequence(PackedState.SOLVED, "R U' B L R' U");
+        s = PackedState.applyTip(PackedState.applyTip(s, Move.L), Move.B_PRIME);
+        long packed = solver.solvePacked(s);
+        for (int i = 0; i < Solver.packedLength(packed); i++) {
+            Move m = Solver.packedMove(packed, i);
+            s = Solver.packedTipOnly(packed, i) ? PackedState.applyTip(s, m) : PackedState.apply(s, m);
+        }
+        assertTrue(PackedState.isSolved(s));
+        assertTrue(Solver.format(packed).matches("([RLUB]'?|[rlub]'?)( [RLUBrlub]'?)*"));
+    }
+
+    @Test
+    void testApplySequenceMatchesParseSequence() {
+        String seq = "  R U' L\tB'  U R' ";
+        long expected = PackedState.SOLVED;
+        for (Move m : Move.parseSequence(seq)) expected = PackedState.apply(expected, m);
+        assertEquals(expected, PackedState.applySequence(PackedState.SOLVED, seq));
+        assertThrows(IllegalArgumentException.class, () -> PackedState.applySequence(PackedState.SOLVED, "R X"));
+        assertThrows(IllegalArgumentException.class, () -> PackedState.applySequence(PackedState.SOLVED, "R''"));
+    }
+
+    @Test
+    void testBatchMatchesSingleSolves() {
+        Random rng = new Random(5);
+        String[] scrambles = new String[2000];
+        for (int i = 0; i < scrambles.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = 0; k < 15; k++) {
+                sb.append("RLUB".charAt(rng.nextInt(4))).append(rng.nextBoolean() ? "' " : " ");
+            }
+            scrambles[i] = sb.toString();
+        }
+
+        long[] batch = new BatchSolver().solve(scrambles);
+        long[] streamed = BatchSolver.solveScrambles(Stream.of(scrambles)).toArray();
+        for (int i = 0; i < scrambles.length; i++) {
+            long state = PackedState.applySequence(PackedState.SOLVED, scrambles[i]);
+            assertEquals(solver.solvePacked(state), batch[i]);
+            assertEquals(batch[i], streamed[i]);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateValidatorTest {
+
+    private static int[] stickers(long s) {
+        int[] out = new int[StateValidator.STICKER_COUNT];
+        for (int i = 0; i < out.length; i++) out[i] = PackedState.stickerFace(s, i / 9, i % 9);
+        return out;
+    }
+
+    @Test
+    void testStickersRoundTrip() {
+        Scrambler scrambler = new Scrambler(16);
+        for (int t = 0; t < 1000; t++) {
+            long s = scrambler.nextState();
+            assertNull(StateValidator.check(s));
+            assertEquals(s, StateValidator.fromStickers(stickers(s)));
+        }
+        Pyraminx p = new Pyraminx();
+        p.scramble(30);
+        Color4[][] faces = new Color4[4][9];
+        for (int f = 0; f < 4; f++) {
+            for (int i = 0; i < 9; i++) faces[f][i] = p.getSticker(f, i);
+        }
+        assertEquals(p.getState(), StateValidator.fromStickers(faces));
+    }
+
+    @Test
+    void testRejectsUnreachableStates() {
+        // Two edges swapped: odd permutation
+        long swapped = (PackedState.SOLVED & ~0xFFL) | 0x01L;
+        assertEquals("Edge permutation is odd", StateValidator.check(swapped));
+        // A single flipped edge
+        assertNotNull(StateValidator.check(PackedState.SOLVED ^ 0x8L));
+        assertNotNull(StateValidator.check(PackedState.SOLVED | 3L << PackedState.TIP_SHIFT));
+        assertEquals("Edge 1 appears twice", StateValidator.check(PackedState.SOLVED & ~0xFL | 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> StateValidator.fromPieces(new int[] {3, 0, 0, 0}, new int[4], new int[] {0, 1, 2, 3, 4, 5}, new int[6]));
+
+        int[] faces = stickers(PackedState.SOLVED);
+        // Swap two stickers of the same edge: flips it alone
+        int[] edge = PackedState.EDGE_STICKERS[0];
+        int t = faces[edge[0]];
+        faces[edge[0]] = faces[edge[1]];
+        faces[edge[1]] = t;
+        assertThrows(IllegalArgumentException.class, () -> StateValidator.fromStickers(faces));
+        // Wrong colour counts
+        int[] recoloured = stickers(PackedState.SOLVED);
+        recoloured[0] = (recoloured[0] + 1) % 4;
+        assertThrows(IllegalArgumentException.class, () -> StateValidator.fromStickers(recoloured));
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchSolver().solve(new long[] {PackedState.SOLVED, swapped}));
+    }
+
+    @Test
+    void testLoadRejectsInvalidSaves(@TempDir Path dir) throws IOException {
+        Pyraminx p = new Pyraminx();
+        p.apply("R L");
+        Path file = dir.resolve("save.json");
+        p.saveToFile(file.toString());
+        new Pyraminx().loadFromFile(file.toString());
+
+        String json = Files.readString(file);
+        // Without faces the pieces are used, and checked
+        Files.writeString(file, json.replace("\"faces\"", "\"unused\"")
+                .replace("\"faceEdgeId\": [\n    [", "\"faceEdgeId\": [\n    [7, "));
+        assertThrows(IOException.class, () -> new Pyraminx().loadFromFile(file.toString()));
+
+        // Faces define the state, so stale pieces are ignored
+        Files.writeString(file, json.replace("\"tipOri\": [0", "\"tipOri\": [2"));
+        Pyraminx stale = new Pyraminx();
+        stale.loadFromFile(file.toString());
+        assertEquals(p.getState(), stale.getState());
+
+        // A recoloured sticker leaves ten of one colour
+        Files.writeString(file, json.replaceFirst("\\[\"[A-Z]+\"", "[\"" + Pyraminx.FACE_COLOR[1].name() + "\""));
+        Pyraminx target = new Pyraminx();
+        assertThrows(IOException.class, () -> target.loadFromFile(file.toString()));
+        assertTrue(target.isSolved(), "A rejected load must leave the puzzle unchanged");
+    }
+
+    @Test
+    void testLoadShippedSave() throws IOException {
+        // The save next to pom.xml; its tips are turned although its tipOri says 0
+        Path file = Path.of("pyraminx_save.json");
+        Pyraminx p = new Pyraminx();
+        p.loadFromFile(file.toString());
+        assertFalse(p.tipsSolved());
+        for (int f = 0; f < 4; f++) {
+            assertEquals(Pyraminx.FACE_COLOR[f], p.getSticker(f, 4), "Centers are solved in the saved faces");
+        }
+        assertEquals(8, p.getMoveCount());
+    }
+}
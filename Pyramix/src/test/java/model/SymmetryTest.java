@@ -0,0 +1,68 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+
+    @Test
+    void testConjugatedMovesCommute() {
+        Random rng = new Random(15);
+        for (int t = 0; t < 200; t++) {
+            long s = new Scrambler(t).nextState();
+            int sym = rng.nextInt(Symmetry.COUNT);
+            int m = rng.nextInt(8);
+            assertEquals(Symmetry.apply(sym, PackedState.apply(s, m)),
+                    PackedState.apply(Symmetry.apply(sym, s), Symmetry.conjugate(sym, m)));
+            assertEquals(s, Symmetry.apply(Symmetry.inverse(sym), Symmetry.apply(sym, s)));
+        }
+    }
+
+    @Test
+    void testSymmetriesAreDistinctAndKeepSolved() {
+        long s = new Scrambler(3).nextState();
+        Set<Long> images = new HashSet<>();
+        for (int sym = 0; sym < Symmetry.COUNT; sym++) {
+            assertEquals(PackedState.SOLVED, Symmetry.apply(sym, PackedState.SOLVED));
+            images.add(Symmetry.apply(sym, s));
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+        assertEquals(s, Symmetry.apply(0, s));
+    }
+
+    @Test
+    void testCanonicalIsSharedBySymmetricStates() {
+        Solver solver = new Solver();
+        for (int t = 0; t < 50; t++) {
+            long s = new Scrambler(100 + t).nextState();
+            long canonical = Symmetry.canonical(s);
+            for (int sym = 0; sym < Symmetry.COUNT; sym++) {
+                long image = Symmetry.apply(sym, s);
+                assertEquals(canonical, Symmetry.canonical(image));
+                if (sym % 7 == 0) assertEquals(solver.distance(s), solver.distance(image));
+            }
+        }
+    }
+
+    @Test
+    void testReducedTablesMatchFullTables() {
+        DistanceTable full = DistanceTable.inMemory();
+        SymmetryTable state = SymmetryTable.build(SymmetryTable.Kind.STATE);
+        SymmetryTable edges = SymmetryTable.build(SymmetryTable.Kind.EDGES);
+        SymmetryTable centers = SymmetryTable.build(SymmetryTable.Kind.CENTERS);
+        assertTrue(state.size() * 12 < Coordinates.STATE_COUNT, "Reduced table should be over 12x smaller");
+
+        for (int i = 0; i < Coordinates.STATE_COUNT; i += 7) {
+            long s = Coordinates.fromIndex(i);
+            int d = full.distance(i);
+            assertEquals(d, state.distance(s), "index " + i);
+            assertTrue(edges.distance(s) <= d);
+            assertTrue(centers.distance(s) <= d);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package server;
+
+import model.Move;
+import model.PackedState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleServerTest {
+
+    private PuzzleServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new PuzzleServer(new InetSocketAddress("127.0.0.1", 0), 100);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testSessionLifecycle() throws Exception {
+        HttpResponse<String> created = send("POST", "/sessions", null);
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"solved\":true"), created.body());
+        String id = created.body().substring(7, created.body().indexOf('"', 7));
+
+        HttpResponse<String> applied = send("POST", "/sessions/" + id + "/apply", "R U' l");
+        assertEquals(200, applied.statusCode());
+        long expected = PackedState.applyTip(PackedState.apply(PackedState.apply(PackedState.SOLVED, Move.R), Move.U_PRIME), Move.L);
+        assertTrue(applied.body().contains("\"state\":\"" + Long.toHexString(expected) + "\""), applied.body());
+        assertTrue(applied.body().contains("\"moves\":3"), applied.body());
+        assertTrue(applied.body().contains("\"distance\":3"), applied.body());
+
+        HttpResponse<String> solved = send("GET", "/sessions/" + id + "/solve", null);
+        assertEquals(200, solved.statusCode());
+        assertTrue(solved.body().contains("\"length\":3"), solved.body());
+
+        HttpResponse<String> undone = send("POST", "/sessions/" + id + "/undo", null);
+        assertTrue(undone.body().contains("\"moves\":2,\"redo\":1"), undone.body());
+        HttpResponse<String> redone = send("POST", "/sessions/" + id + "/redo", null);
+        assertEquals(applied.body(), redone.body());
+
+        assertEquals(204, send("DELETE", "/sessions/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/sessions/" + id, null).statusCode());
+        assertEquals(0, server.sessionCount());
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        String body = send("POST", "/sessions", null).body();
+        String id = body.substring(7, body.indexOf('"', 7));
+        assertEquals(400, send("POST", "/sessions/" + id + "/apply", "R Q").statusCode());
+        assertEquals(405, send("PUT", "/sessions/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/sessions/" + id + "/nothing", null).statusCode());
+        assertEquals(404, send("GET", "/sessions/unknown", null).statusCode());
+        assertEquals(400, send("POST", "/sessions?scramble=-1", null).statusCode());
+        assertEquals(413, send("POST", "/sessions/" + id + "/apply", "R ".repeat(PuzzleServer.MAX_BODY)).statusCode());
+    }
+
+    @Test
+    void testSessionLimit() throws Exception {
+        PuzzleServer small = new PuzzleServer(new InetSocketAddress("127.0.0.1", 0), 100, 1, Duration.ofMinutes(1));
+        small.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + small.port() + "/sessions");
+            HttpRequest create = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build();
+            assertEquals(201, client.send(create, HttpResponse.BodyHandlers.ofString()).statusCode());
+            HttpResponse<String> full = client.send(create, HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, full.statusCode());
+            assertTrue(full.body().contains("Session limit"), full.body());
+        } finally {
+            small.stop(0);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package server;
+
+import model.CompiledAlgorithm;
+import model.Move;
+import model.PackedState;
+import model.Pyraminx;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    @Test
+    void testIdleSessionsAreEvicted() {
+        AtomicLong now = new AtomicLong();
+        SessionStore store = new SessionStore(100, 10, 1000, now::get);
+        String idle = store.create();
+        String busy = store.create();
+
+        now.set(800);
+        assertNotNull(store.withSession(busy, Pyraminx::getState));
+        now.set(1500);
+        assertEquals(1, store.evictIdle());
+        assertNull(store.withSession(idle, Pyraminx::getState));
+        assertNotNull(store.withSession(busy, Pyraminx::getState));
+        assertEquals(1, store.size());
+
+        assertTrue(store.remove(busy));
+        assertFalse(store.remove(busy));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testSessionLimit() {
+        SessionStore store = new SessionStore(100, 2, 1000, () -> 0);
+        store.create();
+        String second = store.create();
+        assertThrows(SessionStore.FullException.class, store::create);
+        store.remove(second);
+        assertNotNull(store.create());
+    }
+
+    @Test
+    void testSessionLimitHoldsUnderConcurrentCreates() throws Exception {
+        SessionStore store = new SessionStore(100, 100, 1000, () -> 0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> created = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            created.add(pool.submit(() -> {
+                int n = 0;
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        store.create();
+                        n++;
+                    } catch (SessionStore.FullException e) {
+                        // expected once the other threads have filled the store
+                    }
+                }
+                return n;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> f : created) total += f.get();
+        pool.shutdown();
+        assertEquals(100, total);
+        assertEquals(100, store.size());
+    }
+
+    @Test
+    void testConcurrentMoves() throws Exception {
+        SessionStore store = new SessionStore(1 << 20, 1000, Long.MAX_VALUE);
+        String shared = store.create();
+        List<String> own = new ArrayList<>();
+        for (int i = 0; i < 8; i++) own.add(store.create());
+
+        int rounds = 3000;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> done = new ArrayList<>();
+        for (String id : own) {
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    store.withSession(id, cube -> { cube.apply(Move.R); return cube; });
+                    store.withSession(shared, cube -> { cube.apply(Move.U); return cube; });
+                }
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+
+        // R and U both have order 3; every move must have landed exactly once
+        long r = PackedState.SOLVED;
+        for (int i = 0; i < rounds % 3; i++) r = PackedState.apply(r, Move.R);
+        for (String id : own) {
+            assertEquals(rounds, (int) store.withSession(id, Pyraminx::getMoveCount));
+            assertEquals(r, (long) store.withSession(id, Pyraminx::getState));
+        }
+        assertEquals(8 * rounds, (int) store.withSession(shared, Pyraminx::getMoveCount));
+    }
+
+    @Test
+    void testSessionsDoNotWaitForEachOther() throws Exception {
+        SessionStore store = new SessionStore(100, 10, Long.MAX_VALUE);
+        String busy = store.create();
+        String other = store.create();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            // Keep one session locked in the middle of a sequence apply
+            Future<?> held = pool.submit(() -> store.withSession(busy, cube -> {
+                cube.apply("R U'");
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return cube;
+            }));
+            assertTrue(holding.await(10, TimeUnit.SECONDS));
+            // Sequence applies on another session, cached or not, must not wait for it
+            Future<Long> applied = pool.submit(() -> store.withSession(other, cube -> {
+                cube.apply("R U'");
+                cube.apply("L B' r");
+                return cube.getState();
+            }));
+            long expected = CompiledAlgorithm.compile("R U' L B' r").applyTo(PackedState.SOLVED);
+            assertEquals(expected, (long) applied.get(10, TimeUnit.SECONDS));
+            release.countDown();
+            held.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+}